@@ -1,5 +1,6 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -12,6 +13,7 @@ repositories {
 }
 
 dependencies {
+    implementation(project(":core"))
     compileOnly("net.portswigger.burp.extensions:montoya-api:2025.8")
 }
 
@@ -25,4 +27,22 @@ tasks.named<Jar>("jar") {
     duplicatesStrategy = DuplicatesStrategy.EXCLUDE
     from(configurations.runtimeClasspath.get().filter { it.isDirectory })
     from(configurations.runtimeClasspath.get().filterNot { it.isDirectory }.map { zipTree(it) })
-}
\ No newline at end of file
+}
+
+// Benchmarks for the parser, format detector and JSON rendering hot paths.
+// Run with ./gradlew jmh, optionally narrowed with -PjmhIncludes=<regex>
+jmh {
+    jmhVersion.set("1.37")
+    includes.set(listOf(project.findProperty("jmhIncludes")?.toString() ?: ".*"))
+    benchmarkMode.set(listOf("thrpt"))
+    timeUnit.set("s")
+    fork.set(1)
+    warmupIterations.set(3)
+    warmup.set("2s")
+    iterations.set(5)
+    timeOnIteration.set("2s")
+    profilers.set(listOf("gc"))
+    // The highlighting benchmark builds Swing documents
+    jvmArgs.set(listOf("-Djava.awt.headless=true"))
+    resultFormat.set("JSON")
+}
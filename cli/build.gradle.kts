@@ -0,0 +1,32 @@
+plugins {
+    id("application")
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation(project(":core"))
+}
+
+application {
+    mainClass.set("SSECli")
+    applicationName = "sse-cli"
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    sourceCompatibility = "21"
+    targetCompatibility = "21"
+    options.encoding = "UTF-8"
+}
+
+// Self-contained jar: java -jar cli/build/libs/cli.jar
+tasks.named<Jar>("jar") {
+    manifest {
+        attributes("Main-Class" to "SSECli")
+    }
+    duplicatesStrategy = DuplicatesStrategy.EXCLUDE
+    from(configurations.runtimeClasspath.get().filter { it.isDirectory })
+    from(configurations.runtimeClasspath.get().filterNot { it.isDirectory }.map { zipTree(it) })
+}
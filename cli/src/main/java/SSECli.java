@@ -0,0 +1,404 @@
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Batch processing of saved event streams outside Burp. Reads raw
+ * {@code .sse} streams, HAR files and raw HTTP responses, or stdin, and
+ * writes NDJSON records, aggregate statistics or reassembled LLM output.
+ * Files are memory-mapped and streamed through the parser, and several
+ * files are processed concurrently on virtual threads; output keeps the
+ * order of the inputs.
+ */
+public class SSECli {
+
+    private static final String USAGE = String.join("\n",
+        "Usage: sse-cli [--format ndjson|stats|reassembled] [--text-path PATH] [FILE...]",
+        "",
+        "Parses Server-Sent Events from .sse streams, HAR files (.har) and raw HTTP",
+        "responses, or from stdin when no file or \"-\" is given.",
+        "",
+        "  -f, --format ndjson       one JSON record per event (default)",
+        "  -f, --format stats        event types, sizes, formats and retry values",
+        "  -f, --format reassembled  message text, tool calls and usage of LLM streams",
+        "  --text-path PATH          JSON path of the text in each event for reassembly,",
+        "                            e.g. choices[0].delta.content; detected by default",
+        "  -h, --help                show this help");
+
+    // Mapped in regions of at most this size, so files over 2 GB stream too
+    private static final long REGION_SIZE = 1L << 30;
+    private static final int STDIN_BUFFER_SIZE = 64 * 1024;
+    // Header block of a raw HTTP response is looked for within this prefix
+    private static final int MAX_HEADER_SIZE = 64 * 1024;
+    private static final JsonPath HAR_ENTRIES = JsonPath.compile("log.entries");
+    private static final JsonPath HAR_URL = JsonPath.compile("request.url");
+    private static final JsonPath HAR_MIME_TYPE = JsonPath.compile("response.content.mimeType");
+    private static final JsonPath HAR_TEXT = JsonPath.compile("response.content.text");
+    private static final JsonPath HAR_ENCODING = JsonPath.compile("response.content.encoding");
+
+    private enum Mode {
+        NDJSON, STATS, REASSEMBLED
+    }
+
+    /** A response body, fed to a parser in order. */
+    private interface Body {
+        void feed(SSEStreamParser parser) throws IOException;
+    }
+
+    /** Receives each response of an input; {@code name} is null for stdin. */
+    private interface ResponseHandler {
+        void accept(String name, Body body) throws IOException;
+    }
+
+    private final Mode mode;
+    private final JsonPath textPath;
+
+    private SSECli(Mode mode, JsonPath textPath) {
+        this.mode = mode;
+        this.textPath = textPath;
+    }
+
+    public static void main(String[] args) {
+        Mode mode = Mode.NDJSON;
+        JsonPath textPath = null;
+        List<String> inputs = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("-h") || arg.equals("--help")) {
+                    System.out.println(USAGE);
+                    return;
+                } else if (arg.equals("-f") || arg.equals("--format")) {
+                    String name = value(args, ++i, arg);
+                    try {
+                        mode = Mode.valueOf(name.toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unknown format " + name);
+                    }
+                } else if (arg.equals("--text-path")) {
+                    textPath = JsonPath.compile(value(args, ++i, arg));
+                } else if (arg.startsWith("-") && !arg.equals("-")) {
+                    throw new IllegalArgumentException("Unknown option " + arg);
+                } else {
+                    inputs.add(arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("sse-cli: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        if (inputs.isEmpty()) {
+            inputs.add("-");
+        }
+        boolean ok = new SSECli(mode, textPath).run(inputs);
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(option + " needs a value");
+        }
+        return args[index];
+    }
+
+    // Returns false when any input failed; the others are still processed
+    private boolean run(List<String> inputs) {
+        boolean ok = true;
+        try (FileChannel out = new FileOutputStream(FileDescriptor.out).getChannel();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (mode == Mode.NDJSON && inputs.size() == 1) {
+                // Nothing to keep in order, so records go straight to stdout
+                try {
+                    writeRecords(inputs.get(0), out);
+                } catch (IOException | RuntimeException e) {
+                    ok = fail(inputs.get(0), e);
+                }
+                return ok;
+            }
+            List<Future<Object>> results = new ArrayList<>();
+            for (String input : inputs) {
+                results.add(executor.submit(() -> process(input)));
+            }
+            SSEStatistics statistics = new SSEStatistics();
+            PrintStream text = new PrintStream(Channels.newOutputStream(out), false, StandardCharsets.UTF_8);
+            for (int i = 0; i < results.size(); i++) {
+                Object result;
+                try {
+                    result = results.get(i).get();
+                } catch (ExecutionException e) {
+                    ok = fail(inputs.get(i), e.getCause());
+                    continue;
+                }
+                if (result instanceof Path spool) {
+                    // Records of each input were spooled so inputs do not interleave
+                    try (FileChannel in = FileChannel.open(spool, StandardOpenOption.READ,
+                            StandardOpenOption.DELETE_ON_CLOSE)) {
+                        for (long position = 0; position < in.size(); ) {
+                            position += in.transferTo(position, in.size() - position, out);
+                        }
+                    }
+                } else if (result instanceof SSEStatistics inputStatistics) {
+                    statistics.merge(inputStatistics);
+                } else {
+                    text.print(result);
+                    text.flush();
+                }
+            }
+            if (mode == Mode.STATS) {
+                text.print(statistics.report());
+                text.flush();
+            }
+        } catch (IOException e) {
+            ok = fail("output", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ok = false;
+        }
+        return ok;
+    }
+
+    private static boolean fail(String input, Throwable error) {
+        if (error instanceof UncheckedIOException) {
+            error = error.getCause();
+        }
+        System.err.println("sse-cli: " + input + ": " + error);
+        return false;
+    }
+
+    // Spool file of NDJSON records, statistics or reassembled text of one input
+    private Object process(String input) throws IOException {
+        switch (mode) {
+            case NDJSON: {
+                Path spool = Files.createTempFile("sse-cli", ".ndjson");
+                try (FileChannel channel = FileChannel.open(spool, StandardOpenOption.WRITE)) {
+                    writeRecords(input, channel);
+                } catch (IOException | RuntimeException e) {
+                    Files.deleteIfExists(spool);
+                    throw e;
+                }
+                return spool;
+            }
+            case STATS: {
+                SSEStatistics statistics = new SSEStatistics();
+                read(input, (name, body) -> {
+                    SSEStreamParser parser = statistics.startResponse();
+                    body.feed(parser);
+                    statistics.endResponse(parser);
+                });
+                return statistics;
+            }
+            default: {
+                StringBuilder out = new StringBuilder();
+                read(input, (name, body) -> {
+                    StreamReassembler reassembler = new StreamReassembler(textPath);
+                    SSEStreamParser parser = new SSEStreamParser(reassembler::add);
+                    body.feed(parser);
+                    parser.flush();
+                    out.append("== ").append(name != null ? name : "stdin").append(" ==\n");
+                    out.append(reassembler.messageFrom(0)).append("\n\n");
+                    out.append(reassembler.summary()).append('\n');
+                });
+                return out.toString();
+            }
+        }
+    }
+
+    private void writeRecords(String input, FileChannel channel) throws IOException {
+        // The exporter closes the channel; the caller's try closes it again, harmlessly
+        try (SSEExporter exporter = new SSEExporter(channel, SSEExporter.Format.NDJSON)) {
+            read(input, (name, body) -> {
+                SSEStreamParser parser = new SSEStreamParser(exporter.recordWriter(name));
+                try {
+                    body.feed(parser);
+                    parser.flush();
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+    }
+
+    // Calls handler with each event-stream response of the input
+    private static void read(String input, ResponseHandler handler) throws IOException {
+        if (input.equals("-")) {
+            handler.accept(null, parser -> {
+                ReadableByteChannel in = Channels.newChannel(System.in);
+                ByteBuffer buffer = ByteBuffer.allocate(STDIN_BUFFER_SIZE);
+                while (in.read(buffer) >= 0) {
+                    buffer.flip();
+                    parser.feed(buffer);
+                    buffer.clear();
+                }
+            });
+            return;
+        }
+        List<ByteBuffer> regions = map(Path.of(input));
+        if (input.toLowerCase(Locale.ROOT).endsWith(".har")) {
+            readHar(input, regions, handler);
+        } else if (!regions.isEmpty() && startsWith(regions.get(0), "HTTP/")) {
+            handler.accept(input, httpBody(regions));
+        } else {
+            handler.accept(input, feedAll(regions));
+        }
+    }
+
+    private static List<ByteBuffer> map(Path path) throws IOException {
+        List<ByteBuffer> regions = new ArrayList<>();
+        // Mappings stay valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += REGION_SIZE) {
+                regions.add(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(REGION_SIZE, size - position)));
+            }
+        }
+        return regions;
+    }
+
+    private static Body feedAll(List<ByteBuffer> parts) {
+        return parser -> {
+            for (ByteBuffer part : parts) {
+                parser.feed(part.duplicate());
+            }
+        };
+    }
+
+    // HAR content is JSON text, so the file is decoded in memory; only
+    // event-stream responses are parsed
+    private static void readHar(String input, List<ByteBuffer> regions, ResponseHandler handler) throws IOException {
+        if (regions.size() > 1) {
+            throw new IOException("HAR files over " + (REGION_SIZE >> 30) + " GB are not supported");
+        }
+        CharBuffer json = regions.isEmpty() ? CharBuffer.allocate(0) : StandardCharsets.UTF_8.decode(regions.get(0));
+        int[] entry = {0};
+        try {
+            HAR_ENTRIES.forEachElement(json, element -> {
+                entry[0]++;
+                String mimeType = HAR_MIME_TYPE.evaluate(element);
+                String text = HAR_TEXT.evaluate(element);
+                if (mimeType == null || text == null ||
+                    !mimeType.toLowerCase(Locale.ROOT).startsWith("text/event-stream")) {
+                    return;
+                }
+                String url = HAR_URL.evaluate(element);
+                byte[] body = "base64".equals(HAR_ENCODING.evaluate(element))
+                    ? Base64.getMimeDecoder().decode(text) : text.getBytes(StandardCharsets.UTF_8);
+                try {
+                    handler.accept(url != null ? url : input + "#" + entry[0], parser -> parser.feed(body));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Body of a saved raw HTTP response, with chunked transfer coding removed
+    private static Body httpBody(List<ByteBuffer> regions) throws IOException {
+        ByteBuffer first = regions.get(0);
+        int limit = Math.min(first.limit(), MAX_HEADER_SIZE);
+        int bodyStart = -1;
+        for (int i = 0; i < limit && bodyStart < 0; i++) {
+            if (first.get(i) != '\n') {
+                continue;
+            }
+            if (i + 1 < limit && first.get(i + 1) == '\n') {
+                bodyStart = i + 2;
+            } else if (i + 2 < limit && first.get(i + 1) == '\r' && first.get(i + 2) == '\n') {
+                bodyStart = i + 3;
+            }
+        }
+        if (bodyStart < 0) {
+            throw new IOException("No end of HTTP headers in the first " + MAX_HEADER_SIZE + " bytes");
+        }
+        byte[] headerBytes = new byte[bodyStart];
+        first.get(0, headerBytes);
+        String headers = new String(headerBytes, StandardCharsets.ISO_8859_1).toLowerCase(Locale.ROOT);
+        List<ByteBuffer> parts = new ArrayList<>();
+        parts.add(first.slice(bodyStart, first.limit() - bodyStart));
+        parts.addAll(regions.subList(1, regions.size()));
+        boolean chunked = false;
+        for (String line : headers.split("\r?\n")) {
+            if (line.startsWith("transfer-encoding:") && line.contains("chunked")) {
+                chunked = true;
+            }
+        }
+        if (!chunked) {
+            return feedAll(parts);
+        }
+        if (parts.size() > 1) {
+            throw new IOException("Chunked responses over " + (REGION_SIZE >> 30) + " GB are not supported");
+        }
+        return feedAll(dechunk(parts.get(0)));
+    }
+
+    // Slices of the chunk data; a response cut off mid-chunk keeps what is there
+    private static List<ByteBuffer> dechunk(ByteBuffer body) {
+        List<ByteBuffer> chunks = new ArrayList<>();
+        int limit = body.limit();
+        int position = 0;
+        while (position < limit) {
+            int lineEnd = position;
+            while (lineEnd < limit && body.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            // Size in hex, possibly followed by extensions
+            long size = 0;
+            int digits = 0;
+            for (int i = position; i < lineEnd && digits < 15; i++, digits++) {
+                int digit = Character.digit(body.get(i), 16);
+                if (digit < 0) {
+                    break;
+                }
+                size = size * 16 + digit;
+            }
+            if (size == 0) {
+                break; // Last chunk, or not chunked after all
+            }
+            int start = Math.min(limit, lineEnd + 1);
+            int end = (int) Math.min(limit, start + size);
+            chunks.add(body.slice(start, end - start));
+            position = end;
+            if (position < limit && body.get(position) == '\r') {
+                position++;
+            }
+            if (position < limit && body.get(position) == '\n') {
+                position++;
+            }
+        }
+        return chunks;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, String prefix) {
+        if (buffer.limit() < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer.get(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
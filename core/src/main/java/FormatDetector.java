@@ -0,0 +1,374 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Classifies event payloads. Works directly on a char sequence or a byte range
+ * without copying: JSON is checked by a streaming validator over the whole
+ * payload, HTML and XML only look at a bounded prefix and suffix.
+ */
+public class FormatDetector {
+
+    // How far into the payload to look for HTML tags or CDATA sections
+    private static final int MARKUP_LOOKAHEAD = 4096;
+    // How far back from the end to look for an XML closing tag
+    private static final int XML_TAIL_LOOKBEHIND = 256;
+
+    private static final String[] HTML_TAGS = {
+        "html", "head", "body", "div", "p", "span", "a", "img", "form", "input",
+        "button", "table", "tr", "td", "ul", "li", "script", "style"
+    };
+
+    public FormatType detectFormat(String data) {
+        return detectFormat((CharSequence) data);
+    }
+
+    /** Classifies UTF-8 bytes; markup and JSON syntax is ASCII, so no decoding is needed. */
+    public FormatType detectFormat(byte[] data, int offset, int length) {
+        return detectFormat(new ByteCharSequence(data, offset, length));
+    }
+
+    public FormatType detectFormat(CharSequence data) {
+        if (data == null) {
+            return FormatType.PLAIN_TEXT;
+        }
+
+        int start = 0;
+        int end = data.length();
+        while (start < end && data.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && data.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return FormatType.PLAIN_TEXT;
+        }
+
+        char first = data.charAt(start);
+
+        // Try to detect JSON
+        if ((first == '{' || first == '[') && isJSON(data, start, end)) {
+            return FormatType.JSON;
+        }
+
+        // An XML declaration wins over any HTML-looking tags
+        if (first == '<' && regionMatches(data, start, end, "<?xml", false) && data.charAt(end - 1) == '>') {
+            return FormatType.XML;
+        }
+
+        // Try to detect HTML
+        if (isHTML(data, start, end)) {
+            return FormatType.HTML;
+        }
+
+        // Try to detect XML
+        if (first == '<' && isXML(data, start, end)) {
+            return FormatType.XML;
+        }
+
+        return FormatType.PLAIN_TEXT;
+    }
+
+    // Parser states of the JSON validator
+    private static final int EXPECT_VALUE = 0;
+    private static final int EXPECT_VALUE_OR_END = 1;
+    private static final int EXPECT_KEY = 2;
+    private static final int EXPECT_KEY_OR_END = 3;
+    private static final int EXPECT_COLON = 4;
+    private static final int AFTER_VALUE = 5;
+
+    /**
+     * Validates that [start, end) is exactly one JSON value (RFC 8259).
+     * The container stack is a bit set: 1 for object, 0 for array.
+     */
+    static boolean isJSON(CharSequence data, int start, int end) {
+        int state = EXPECT_VALUE;
+        int depth = 0;
+        long shallow = 0;
+        long[] deep = null;
+
+        int i = start;
+        while (i < end) {
+            char c = data.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                i++;
+                continue;
+            }
+
+            // Closing an empty container; otherwise these states take a value or key
+            if ((state == EXPECT_VALUE_OR_END && c == ']') || (state == EXPECT_KEY_OR_END && c == '}')) {
+                depth--;
+                state = AFTER_VALUE;
+                i++;
+                continue;
+            }
+
+            switch (state) {
+                case EXPECT_VALUE_OR_END:
+                case EXPECT_VALUE:
+                    if (c == '{' || c == '[') {
+                        boolean object = c == '{';
+                        if (depth < 64) {
+                            shallow = object ? shallow | (1L << depth) : shallow & ~(1L << depth);
+                        } else {
+                            int word = (depth >> 6) - 1;
+                            if (deep == null) {
+                                deep = new long[4];
+                            } else if (word >= deep.length) {
+                                deep = Arrays.copyOf(deep, deep.length * 2);
+                            }
+                            deep[word] = object ? deep[word] | (1L << depth) : deep[word] & ~(1L << depth);
+                        }
+                        depth++;
+                        state = object ? EXPECT_KEY_OR_END : EXPECT_VALUE_OR_END;
+                        i++;
+                    } else if (c == '"') {
+                        i = scanString(data, i + 1, end);
+                        state = AFTER_VALUE;
+                    } else if (c == '-' || (c >= '0' && c <= '9')) {
+                        i = scanNumber(data, i, end);
+                        state = AFTER_VALUE;
+                    } else if (c == 't') {
+                        i = scanLiteral(data, i, end, "true");
+                        state = AFTER_VALUE;
+                    } else if (c == 'f') {
+                        i = scanLiteral(data, i, end, "false");
+                        state = AFTER_VALUE;
+                    } else if (c == 'n') {
+                        i = scanLiteral(data, i, end, "null");
+                        state = AFTER_VALUE;
+                    } else {
+                        return false;
+                    }
+                    break;
+                case EXPECT_KEY_OR_END:
+                case EXPECT_KEY:
+                    if (c != '"') {
+                        return false;
+                    }
+                    i = scanString(data, i + 1, end);
+                    state = EXPECT_COLON;
+                    break;
+                case EXPECT_COLON:
+                    if (c != ':') {
+                        return false;
+                    }
+                    state = EXPECT_VALUE;
+                    i++;
+                    break;
+                default: // AFTER_VALUE
+                    if (depth == 0) {
+                        // Trailing content after the top-level value
+                        return false;
+                    }
+                    int top = depth - 1;
+                    boolean inObject = top < 64
+                            ? (shallow & (1L << top)) != 0
+                            : (deep[(top >> 6) - 1] & (1L << top)) != 0;
+                    if (c == ',') {
+                        state = inObject ? EXPECT_KEY : EXPECT_VALUE;
+                    } else if (c == (inObject ? '}' : ']')) {
+                        depth--;
+                    } else {
+                        return false;
+                    }
+                    i++;
+            }
+
+            if (i < 0) {
+                return false;
+            }
+        }
+
+        return depth == 0 && state == AFTER_VALUE;
+    }
+
+    // Returns the index after the closing quote, or -1 if the string is invalid
+    private static int scanString(CharSequence data, int i, int end) {
+        while (i < end) {
+            char c = data.charAt(i++);
+            if (c == '"') {
+                return i;
+            }
+            if (c < 0x20) {
+                return -1;
+            }
+            if (c == '\\') {
+                if (i >= end) {
+                    return -1;
+                }
+                char escape = data.charAt(i++);
+                if (escape == 'u') {
+                    if (i + 4 > end) {
+                        return -1;
+                    }
+                    for (int k = 0; k < 4; k++) {
+                        if (Character.digit(data.charAt(i++), 16) < 0) {
+                            return -1;
+                        }
+                    }
+                } else if ("\"\\/bfnrt".indexOf(escape) < 0) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Returns the index after the number, or -1 if it is malformed
+    private static int scanNumber(CharSequence data, int i, int end) {
+        if (data.charAt(i) == '-') {
+            i++;
+        }
+        if (i >= end) {
+            return -1;
+        }
+        if (data.charAt(i) == '0') {
+            i++;
+        } else {
+            int digitsStart = i;
+            i = skipDigits(data, i, end);
+            if (i == digitsStart) {
+                return -1;
+            }
+        }
+        if (i < end && data.charAt(i) == '.') {
+            int digitsStart = ++i;
+            i = skipDigits(data, i, end);
+            if (i == digitsStart) {
+                return -1;
+            }
+        }
+        if (i < end && (data.charAt(i) == 'e' || data.charAt(i) == 'E')) {
+            i++;
+            if (i < end && (data.charAt(i) == '+' || data.charAt(i) == '-')) {
+                i++;
+            }
+            int digitsStart = i;
+            i = skipDigits(data, i, end);
+            if (i == digitsStart) {
+                return -1;
+            }
+        }
+        return i;
+    }
+
+    private static int skipDigits(CharSequence data, int i, int end) {
+        while (i < end && data.charAt(i) >= '0' && data.charAt(i) <= '9') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int scanLiteral(CharSequence data, int i, int end, String literal) {
+        return regionMatches(data, i, end, literal, false) ? i + literal.length() : -1;
+    }
+
+    private static boolean isXML(CharSequence data, int start, int end) {
+        if (data.charAt(end - 1) != '>') {
+            return false;
+        }
+        // Check for XML declaration or root element
+        if (regionMatches(data, start, end, "<?xml", false)) {
+            return true;
+        }
+        // Self-closing root or a closing tag near the end
+        if (data.charAt(end - 2) == '/') {
+            return true;
+        }
+        int tailStart = Math.max(start, end - XML_TAIL_LOOKBEHIND);
+        for (int i = end - 2; i >= tailStart; i--) {
+            if (data.charAt(i) == '<') {
+                if (i + 2 < end && data.charAt(i + 1) == '/' && isAsciiLetter(data.charAt(i + 2))) {
+                    return isAsciiLetter(data.charAt(start + 1)) || data.charAt(start + 1) == '!';
+                }
+                break;
+            }
+        }
+        // Also check for CDATA sections
+        int lookaheadEnd = Math.min(end, start + MARKUP_LOOKAHEAD);
+        for (int i = start; i < lookaheadEnd; i++) {
+            if (data.charAt(i) == '<' && regionMatches(data, i, lookaheadEnd, "<![CDATA[", false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Looks for a doctype or a common HTML tag within the look-ahead window
+    private static boolean isHTML(CharSequence data, int start, int end) {
+        int lookaheadEnd = Math.min(end, start + MARKUP_LOOKAHEAD);
+        for (int i = start; i < lookaheadEnd - 1; i++) {
+            if (data.charAt(i) != '<') {
+                continue;
+            }
+            if (regionMatches(data, i + 1, lookaheadEnd, "!doctype html", true)) {
+                return true;
+            }
+            for (String tag : HTML_TAGS) {
+                int tagEnd = i + 1 + tag.length();
+                if (tagEnd < end && regionMatches(data, i + 1, end, tag, true)) {
+                    char next = data.charAt(tagEnd);
+                    if (next == '>' || next == '/' || next <= ' ') {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionMatches(CharSequence data, int offset, int end, String expected, boolean ignoreCase) {
+        if (offset + expected.length() > end) {
+            return false;
+        }
+        for (int k = 0; k < expected.length(); k++) {
+            char c = data.charAt(offset + k);
+            if (ignoreCase && c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            if (c != expected.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    // Latin-1 view over UTF-8 bytes; multi-byte characters only occur
+    // inside strings and text, where their exact value does not matter
+    private static class ByteCharSequence implements CharSequence {
+        private final byte[] bytes;
+        private final int offset;
+        private final int length;
+
+        ByteCharSequence(byte[] bytes, int offset, int length) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes[offset + index] & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new ByteCharSequence(bytes, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Pretty-prints JSON and classifies its tokens in a single pass. The output
+ * is one char buffer plus coalesced runs of equal token kind, so a renderer
+ * can style it without re-scanning or splitting the text.
+ */
+public class JsonFormatter {
+
+    public static final byte PUNCTUATION = 0;
+    public static final byte KEY = 1;
+    public static final byte STRING = 2;
+    public static final byte NUMBER = 3;
+    public static final byte LITERAL = 4;
+
+    private static final String INDENT = "  ";
+
+    /** Formatted text and its token runs. Runs cover the text without gaps. */
+    public static class Formatted {
+        private char[] chars = new char[256];
+        private int length;
+        private int[] runEnds = new int[32];
+        private byte[] runKinds = new byte[32];
+        private int runCount;
+
+        public char[] chars() {
+            return chars;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public int runCount() {
+            return runCount;
+        }
+
+        public int runStart(int run) {
+            return run == 0 ? 0 : runEnds[run - 1];
+        }
+
+        public int runEnd(int run) {
+            return runEnds[run];
+        }
+
+        public byte runKind(int run) {
+            return runKinds[run];
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, 0, length);
+        }
+
+        void append(char c, byte kind) {
+            ensureCapacity(length + 1);
+            chars[length++] = c;
+            extendRun(kind);
+        }
+
+        void append(CharSequence text, int start, int end, byte kind) {
+            ensureCapacity(length + end - start);
+            for (int i = start; i < end; i++) {
+                chars[length++] = text.charAt(i);
+            }
+            extendRun(kind);
+        }
+
+        private void extendRun(byte kind) {
+            // Coalesce with the previous run of the same kind
+            if (runCount > 0 && runKinds[runCount - 1] == kind) {
+                runEnds[runCount - 1] = length;
+                return;
+            }
+            if (runCount == runEnds.length) {
+                runEnds = Arrays.copyOf(runEnds, runCount * 2);
+                runKinds = Arrays.copyOf(runKinds, runCount * 2);
+            }
+            runEnds[runCount] = length;
+            runKinds[runCount] = kind;
+            runCount++;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(capacity, chars.length * 2));
+            }
+        }
+    }
+
+    public static String prettify(CharSequence json) {
+        return format(json).toString();
+    }
+
+    /**
+     * Formats {@code json} with two-space indentation. Malformed input is
+     * formatted on a best-effort basis rather than rejected.
+     */
+    public static Formatted format(CharSequence json) {
+        Formatted out = new Formatted();
+        // Open containers: set bit for object, clear for array
+        BitSet objects = new BitSet();
+        int depth = 0;
+        boolean expectKey = false;
+
+        int length = json.length();
+        int i = 0;
+        while (i < length) {
+            char c = json.charAt(i);
+
+            if (c == '"') {
+                int end = findStringEnd(json, i + 1, length);
+                out.append(json, i, end, expectKey ? KEY : STRING);
+                expectKey = false;
+                i = end;
+                continue;
+            }
+
+            if (Character.isDigit(c) || (c == '-' && i + 1 < length && Character.isDigit(json.charAt(i + 1)))) {
+                int end = i + 1;
+                while (end < length && isNumberChar(json.charAt(end))) {
+                    end++;
+                }
+                out.append(json, i, end, NUMBER);
+                i = end;
+                continue;
+            }
+
+            int literalEnd = matchLiteral(json, i, length);
+            if (literalEnd > 0) {
+                out.append(json, i, literalEnd, LITERAL);
+                i = literalEnd;
+                continue;
+            }
+
+            switch (c) {
+                case '{':
+                case '[':
+                    objects.set(depth, c == '{');
+                    depth++;
+                    out.append(c, PUNCTUATION);
+                    expectKey = c == '{';
+                    // Keep empty containers on one line
+                    int next = skipWhitespace(json, i + 1, length);
+                    if (next < length && json.charAt(next) == (c == '{' ? '}' : ']')) {
+                        out.append(json.charAt(next), PUNCTUATION);
+                        depth--;
+                        expectKey = false;
+                        i = next + 1;
+                        continue;
+                    }
+                    newline(out, depth);
+                    break;
+                case '}':
+                case ']':
+                    depth = Math.max(0, depth - 1);
+                    newline(out, depth);
+                    out.append(c, PUNCTUATION);
+                    expectKey = false;
+                    break;
+                case ',':
+                    out.append(c, PUNCTUATION);
+                    newline(out, depth);
+                    expectKey = depth > 0 && objects.get(depth - 1);
+                    break;
+                case ':':
+                    out.append(c, PUNCTUATION);
+                    out.append(' ', PUNCTUATION);
+                    expectKey = false;
+                    break;
+                default:
+                    if (!Character.isWhitespace(c)) {
+                        out.append(c, PUNCTUATION);
+                    }
+            }
+            i++;
+        }
+
+        return out;
+    }
+
+    private static void newline(Formatted out, int depth) {
+        out.append('\n', PUNCTUATION);
+        for (int level = 0; level < depth; level++) {
+            out.append(INDENT, 0, INDENT.length(), PUNCTUATION);
+        }
+    }
+
+    // Returns the index after the closing quote, or the end of input
+    private static int findStringEnd(CharSequence json, int start, int length) {
+        boolean escaped = false;
+        for (int i = start; i < length; i++) {
+            char c = json.charAt(i);
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                return i + 1;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isNumberChar(char c) {
+        return Character.isDigit(c) || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-';
+    }
+
+    private static int matchLiteral(CharSequence json, int i, int length) {
+        char c = json.charAt(i);
+        String literal = c == 't' ? "true" : c == 'f' ? "false" : c == 'n' ? "null" : null;
+        if (literal == null || i + literal.length() > length) {
+            return -1;
+        }
+        for (int k = 1; k < literal.length(); k++) {
+            if (json.charAt(i + k) != literal.charAt(k)) {
+                return -1;
+            }
+        }
+        return i + literal.length();
+    }
+
+    private static int skipWhitespace(CharSequence json, int i, int length) {
+        while (i < length && Character.isWhitespace(json.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
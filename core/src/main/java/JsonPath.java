@@ -0,0 +1,331 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A simple JSON path such as {@code choices[0].delta.content}, {@code $.type}
+ * or {@code ["odd.key"]}. Paths are resolved by scanning the JSON text once,
+ * skipping unrelated values without building a tree, and stop as soon as the
+ * addressed value has been found.
+ */
+public class JsonPath {
+
+    private final String expression;
+    // Each segment is either a member name (String) or an array index (Integer)
+    private final Object[] segments;
+
+    private JsonPath(String expression, Object[] segments) {
+        this.expression = expression;
+        this.segments = segments;
+    }
+
+    /** Parses {@code expression}; throws IllegalArgumentException when it is malformed. */
+    public static JsonPath compile(String expression) {
+        String path = expression.trim();
+        List<Object> segments = new ArrayList<>();
+        int i = path.startsWith("$") ? 1 : 0;
+        boolean first = true;
+        while (i < path.length()) {
+            char c = path.charAt(i);
+            if (c == '[') {
+                int close = path.indexOf(']', i);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Missing ] in JSON path: " + expression);
+                }
+                String inner = path.substring(i + 1, close).trim();
+                if (inner.length() >= 2 && (inner.charAt(0) == '"' || inner.charAt(0) == '\'') &&
+                    inner.charAt(inner.length() - 1) == inner.charAt(0)) {
+                    segments.add(inner.substring(1, inner.length() - 1));
+                } else {
+                    try {
+                        segments.add(Integer.parseInt(inner));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Bad array index in JSON path: " + expression);
+                    }
+                }
+                i = close + 1;
+            } else {
+                if (c == '.') {
+                    i++;
+                } else if (!first) {
+                    throw new IllegalArgumentException("Expected . or [ in JSON path: " + expression);
+                }
+                int end = i;
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    end++;
+                }
+                if (end == i) {
+                    throw new IllegalArgumentException("Empty name in JSON path: " + expression);
+                }
+                segments.add(path.substring(i, end));
+                i = end;
+            }
+            first = false;
+        }
+        if (segments.isEmpty()) {
+            throw new IllegalArgumentException("Empty JSON path");
+        }
+        return new JsonPath(path, segments.toArray());
+    }
+
+    public String expression() {
+        return expression;
+    }
+
+    /**
+     * Returns the addressed value: strings unescaped, anything else as its raw
+     * JSON text. Returns null when the value is JSON null, the path doesn't
+     * resolve or the JSON is malformed before the value is reached.
+     */
+    public String evaluate(CharSequence json) {
+        if (json == null) {
+            return null;
+        }
+        int length = json.length();
+        int i = skipWhitespace(json, 0, length);
+        for (Object segment : segments) {
+            i = segment instanceof String
+                ? findMember(json, i, length, (String) segment)
+                : findElement(json, i, length, (Integer) segment);
+            if (i < 0) {
+                return null;
+            }
+        }
+        if (i >= length) {
+            return null;
+        }
+        if (json.charAt(i) == '"') {
+            int end = skipString(json, i, length);
+            return end < 0 ? null : unescape(json, i + 1, end - 1);
+        }
+        int end = skipValue(json, i, length);
+        if (end < 0 || (end - i == 4 && json.charAt(i) == 'n')) {
+            return null;
+        }
+        return json.subSequence(i, end).toString();
+    }
+
+    /**
+     * Calls {@code action} with the raw text of each element of the array
+     * this path addresses, in order. Elements are {@code subSequence}s, so
+     * they are views rather than copies when {@code json} is a CharBuffer.
+     * Stops at malformed input; does nothing when the path does not address
+     * an array.
+     */
+    public void forEachElement(CharSequence json, Consumer<CharSequence> action) {
+        if (json == null) {
+            return;
+        }
+        int length = json.length();
+        int i = skipWhitespace(json, 0, length);
+        for (Object segment : segments) {
+            i = segment instanceof String
+                ? findMember(json, i, length, (String) segment)
+                : findElement(json, i, length, (Integer) segment);
+            if (i < 0) {
+                return;
+            }
+        }
+        if (i >= length || json.charAt(i) != '[') {
+            return;
+        }
+        i = skipWhitespace(json, i + 1, length);
+        if (i < length && json.charAt(i) == ']') {
+            return;
+        }
+        while (i >= 0 && i < length) {
+            int end = skipValue(json, i, length);
+            if (end < 0) {
+                return;
+            }
+            action.accept(json.subSequence(i, end));
+            i = nextItem(json, end, length);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    // Returns the start of the value of member name in the object at i, or -1
+    private static int findMember(CharSequence json, int i, int length, String name) {
+        if (i >= length || json.charAt(i) != '{') {
+            return -1;
+        }
+        i = skipWhitespace(json, i + 1, length);
+        if (i < length && json.charAt(i) == '}') {
+            return -1;
+        }
+        while (i < length) {
+            if (json.charAt(i) != '"') {
+                return -1;
+            }
+            int keyEnd = skipString(json, i, length);
+            if (keyEnd < 0) {
+                return -1;
+            }
+            boolean match = keyEquals(json, i + 1, keyEnd - 1, name);
+            i = skipWhitespace(json, keyEnd, length);
+            if (i >= length || json.charAt(i) != ':') {
+                return -1;
+            }
+            i = skipWhitespace(json, i + 1, length);
+            if (match) {
+                return i;
+            }
+            i = nextItem(json, skipValue(json, i, length), length);
+            if (i < 0) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    // Returns the start of element index of the array at i, or -1
+    private static int findElement(CharSequence json, int i, int length, int index) {
+        if (index < 0 || i >= length || json.charAt(i) != '[') {
+            return -1;
+        }
+        i = skipWhitespace(json, i + 1, length);
+        if (i < length && json.charAt(i) == ']') {
+            return -1;
+        }
+        for (int element = 0; i < length; element++) {
+            if (element == index) {
+                return i;
+            }
+            i = nextItem(json, skipValue(json, i, length), length);
+            if (i < 0) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    // After a value: skips the comma and returns the start of the next item,
+    // or -1 at the end of the container or on malformed input
+    private static int nextItem(CharSequence json, int i, int length) {
+        if (i < 0) {
+            return -1;
+        }
+        i = skipWhitespace(json, i, length);
+        if (i >= length || json.charAt(i) != ',') {
+            return -1;
+        }
+        return skipWhitespace(json, i + 1, length);
+    }
+
+    // Returns the index after the value starting at i, or -1
+    private static int skipValue(CharSequence json, int i, int length) {
+        if (i >= length) {
+            return -1;
+        }
+        char c = json.charAt(i);
+        if (c == '"') {
+            return skipString(json, i, length);
+        }
+        if (c == '{' || c == '[') {
+            // Brackets inside strings are skipped along with the strings
+            int depth = 0;
+            while (i < length) {
+                c = json.charAt(i);
+                if (c == '"') {
+                    i = skipString(json, i, length);
+                    if (i < 0) {
+                        return -1;
+                    }
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if ((c == '}' || c == ']') && --depth == 0) {
+                    return i + 1;
+                }
+                i++;
+            }
+            return -1;
+        }
+        // Number or literal
+        int start = i;
+        while (i < length) {
+            c = json.charAt(i);
+            if (c == ',' || c == '}' || c == ']' || c <= ' ') {
+                break;
+            }
+            i++;
+        }
+        return i > start ? i : -1;
+    }
+
+    // Returns the index after the closing quote of the string at i, or -1
+    private static int skipString(CharSequence json, int i, int length) {
+        for (i++; i < length; i++) {
+            char c = json.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean keyEquals(CharSequence json, int start, int end, String name) {
+        for (int i = start; i < end; i++) {
+            if (json.charAt(i) == '\\') {
+                // Rare; compare the decoded key
+                return name.equals(unescape(json, start, end));
+            }
+        }
+        if (end - start != name.length()) {
+            return false;
+        }
+        for (int k = 0; k < name.length(); k++) {
+            if (json.charAt(start + k) != name.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String unescape(CharSequence json, int start, int end) {
+        StringBuilder out = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = json.charAt(i);
+            if (c != '\\' || i + 1 >= end) {
+                out.append(c);
+                continue;
+            }
+            char escape = json.charAt(++i);
+            switch (escape) {
+                case 'b': out.append('\b'); break;
+                case 'f': out.append('\f'); break;
+                case 'n': out.append('\n'); break;
+                case 'r': out.append('\r'); break;
+                case 't': out.append('\t'); break;
+                case 'u':
+                    if (i + 4 < end) {
+                        try {
+                            out.append((char) Integer.parseInt(json.subSequence(i + 1, i + 5).toString(), 16));
+                            i += 4;
+                            break;
+                        } catch (NumberFormatException e) {
+                            // Keep the escape as is
+                        }
+                    }
+                    out.append('\\').append(escape);
+                    break;
+                default: out.append(escape);
+            }
+        }
+        return out.toString();
+    }
+
+    private static int skipWhitespace(CharSequence json, int i, int length) {
+        while (i < length && json.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+}
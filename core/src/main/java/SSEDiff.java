@@ -0,0 +1,332 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Event-level diff of two event streams. Each event is reduced to two 64-bit
+ * hashes while re-parsing its block: an alignment key, taken from the id when
+ * there is one and from the type and data otherwise, and a hash of all of its
+ * fields. The key sequences are diffed with Myers' algorithm in its
+ * linear-space, divide-and-conquer form, so only the events shown later need
+ * to be decoded. Aligned events whose field hashes differ are reported as
+ * changed, events with the same id on both sides but out of order as moved.
+ */
+public class SSEDiff {
+
+    public enum Kind {
+        EQUAL("Equal"),
+        CHANGED("Changed"),
+        MOVED("Moved"),
+        REMOVED("Removed"),
+        ADDED("Added");
+
+        private final String displayName;
+
+        Kind(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+    // Diagonal steps of the snake search before the rest is reported as a plain replacement
+    private static final long WORK_LIMIT = 20_000_000L;
+    private static final int CHECK_INTERVAL = 1024;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] a;
+    private final long[] b;
+    private final int[] forward;
+    private final int[] backward;
+    private long work;
+    private boolean interrupted;
+    // Edit script in order: kind ordinals with the left and right row, -1 for none
+    private byte[] kinds = new byte[64];
+    private int[] lefts = new int[64];
+    private int[] rights = new int[64];
+    private int size;
+
+    private SSEDiff(long[] a, long[] b) {
+        this.a = a;
+        this.b = b;
+        int max = (a.length + b.length + 1) / 2;
+        forward = new int[2 * max + 3];
+        backward = new int[2 * max + 3];
+    }
+
+    /** Diffs two event indexes; returns null when the thread is interrupted. */
+    public static Result diff(SSEEventIndex left, SSEEventIndex right) {
+        Hashes leftHashes = Hashes.of(left);
+        Hashes rightHashes = leftHashes != null ? Hashes.of(right) : null;
+        if (rightHashes == null) {
+            return null;
+        }
+        SSEDiff diff = new SSEDiff(leftHashes.keys, rightHashes.keys);
+        diff.diff(0, leftHashes.keys.length, 0, rightHashes.keys.length);
+        if (diff.interrupted) {
+            return null;
+        }
+        return diff.classify(leftHashes, rightHashes);
+    }
+
+    private void diff(int aFrom, int aTo, int bFrom, int bTo) {
+        while (aFrom < aTo && bFrom < bTo && a[aFrom] == b[bFrom]) {
+            add(Kind.EQUAL, aFrom++, bFrom++);
+        }
+        int aEnd = aTo;
+        int bEnd = bTo;
+        while (aEnd > aFrom && bEnd > bFrom && a[aEnd - 1] == b[bEnd - 1]) {
+            aEnd--;
+            bEnd--;
+        }
+        int[] snake = aFrom < aEnd && bFrom < bEnd ? middleSnake(aFrom, aEnd, bFrom, bEnd) : null;
+        if (snake == null) {
+            // Also the remainder once over the work limit
+            for (int i = aFrom; i < aEnd; i++) {
+                add(Kind.REMOVED, i, -1);
+            }
+            for (int j = bFrom; j < bEnd; j++) {
+                add(Kind.ADDED, -1, j);
+            }
+        } else {
+            diff(aFrom, snake[0], bFrom, snake[1]);
+            for (int i = snake[0], j = snake[1]; i < snake[2]; i++, j++) {
+                add(Kind.EQUAL, i, j);
+            }
+            diff(snake[2], aEnd, snake[3], bEnd);
+        }
+        for (int i = aEnd, j = bEnd; i < aTo; i++, j++) {
+            add(Kind.EQUAL, i, j);
+        }
+    }
+
+    // The middle snake of an optimal path as {x, y, u, v}, searched from both
+    // ends at once; null when the work limit ran out first
+    private int[] middleSnake(int aFrom, int aTo, int bFrom, int bTo) {
+        int n = aTo - aFrom;
+        int m = bTo - bFrom;
+        int max = (n + m + 1) / 2;
+        int offset = max + 1;
+        int delta = n - m;
+        boolean odd = (delta & 1) != 0;
+        forward[offset + 1] = 0;
+        backward[offset + 1] = 0;
+        for (int d = 0; d <= max; d++) {
+            if (work > WORK_LIMIT || interrupted) {
+                return null;
+            }
+            if ((d & (CHECK_INTERVAL - 1)) == 0 && Thread.currentThread().isInterrupted()) {
+                interrupted = true;
+                return null;
+            }
+            work += d + 1;
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1])
+                    ? forward[offset + k + 1] : forward[offset + k - 1] + 1;
+                int y = x - k;
+                int x0 = x;
+                int y0 = y;
+                while (x < n && y < m && a[aFrom + x] == b[bFrom + y]) {
+                    x++;
+                    y++;
+                }
+                forward[offset + k] = x;
+                int reverse = delta - k;
+                if (odd && reverse >= -(d - 1) && reverse <= d - 1 && x + backward[offset + reverse] >= n) {
+                    return new int[] {aFrom + x0, bFrom + y0, aFrom + x, bFrom + y};
+                }
+            }
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && backward[offset + k - 1] < backward[offset + k + 1])
+                    ? backward[offset + k + 1] : backward[offset + k - 1] + 1;
+                int y = x - k;
+                int x0 = x;
+                int y0 = y;
+                while (x < n && y < m && a[aTo - 1 - x] == b[bTo - 1 - y]) {
+                    x++;
+                    y++;
+                }
+                backward[offset + k] = x;
+                int ahead = delta - k;
+                if (!odd && ahead >= -d && ahead <= d && x + forward[offset + ahead] >= n) {
+                    return new int[] {aTo - x, bTo - y, aTo - x0, bTo - y0};
+                }
+            }
+        }
+        return null;
+    }
+
+    private void add(Kind kind, int left, int right) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            lefts = Arrays.copyOf(lefts, capacity);
+            rights = Arrays.copyOf(rights, capacity);
+        }
+        kinds[size] = (byte) kind.ordinal();
+        lefts[size] = left;
+        rights[size] = right;
+        size++;
+    }
+
+    // Marks changed, moved and paired entries of the raw edit script
+    private Result classify(Hashes left, Hashes right) {
+        // Removed and added events with the same id were reordered
+        Map<Long, Integer> added = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            if (kinds[i] == Kind.ADDED.ordinal() && right.hasId.get(rights[i])) {
+                added.putIfAbsent(right.keys[rights[i]], i);
+            }
+        }
+        BitSet dropped = new BitSet(size);
+        for (int i = 0; i < size && !added.isEmpty(); i++) {
+            if (kinds[i] == Kind.REMOVED.ordinal() && left.hasId.get(lefts[i])) {
+                Integer match = added.remove(left.keys[lefts[i]]);
+                if (match != null) {
+                    kinds[i] = (byte) Kind.MOVED.ordinal();
+                    rights[i] = rights[match];
+                    dropped.set(match);
+                }
+            }
+        }
+
+        int[] counts = new int[KINDS.length];
+        byte[] resultKinds = new byte[size - dropped.cardinality()];
+        int[] resultLefts = new int[resultKinds.length];
+        int[] resultRights = new int[resultKinds.length];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (dropped.get(i)) {
+                continue;
+            }
+            if (kinds[i] == Kind.REMOVED.ordinal() && !left.hasId.get(lefts[i])) {
+                // Pair a run of removed events without ids with the added ones after it
+                int removedEnd = i;
+                while (removedEnd < size && !dropped.get(removedEnd) && kinds[removedEnd] == Kind.REMOVED.ordinal() &&
+                       !left.hasId.get(lefts[removedEnd])) {
+                    removedEnd++;
+                }
+                int addedEnd = removedEnd;
+                while (addedEnd < size && !dropped.get(addedEnd) && kinds[addedEnd] == Kind.ADDED.ordinal() &&
+                       !right.hasId.get(rights[addedEnd]) && addedEnd - removedEnd < removedEnd - i) {
+                    addedEnd++;
+                }
+                for (int pair = 0; pair < addedEnd - removedEnd; pair++) {
+                    kinds[i + pair] = (byte) Kind.CHANGED.ordinal();
+                    rights[i + pair] = rights[removedEnd + pair];
+                    dropped.set(removedEnd + pair);
+                }
+            }
+            Kind kind = KINDS[kinds[i]];
+            if (kind == Kind.EQUAL && left.fields[lefts[i]] != right.fields[rights[i]]) {
+                kind = Kind.CHANGED;
+            }
+            counts[kind.ordinal()]++;
+            resultKinds[count] = (byte) kind.ordinal();
+            resultLefts[count] = lefts[i];
+            resultRights[count] = rights[i];
+            count++;
+        }
+        return new Result(Arrays.copyOf(resultKinds, count), Arrays.copyOf(resultLefts, count),
+            Arrays.copyOf(resultRights, count), counts);
+    }
+
+    /** Aligned events of both streams, in stream order. */
+    public static class Result {
+        private final byte[] kinds;
+        private final int[] lefts;
+        private final int[] rights;
+        private final int[] counts;
+
+        Result(byte[] kinds, int[] lefts, int[] rights, int[] counts) {
+            this.kinds = kinds;
+            this.lefts = lefts;
+            this.rights = rights;
+            this.counts = counts;
+        }
+
+        public int size() {
+            return kinds.length;
+        }
+
+        public Kind kind(int entry) {
+            return KINDS[kinds[entry]];
+        }
+
+        /** Row in the left index, or -1 for added events. */
+        public int leftRow(int entry) {
+            return lefts[entry];
+        }
+
+        /** Row in the right index, or -1 for removed events. */
+        public int rightRow(int entry) {
+            return rights[entry];
+        }
+
+        public int count(Kind kind) {
+            return counts[kind.ordinal()];
+        }
+    }
+
+    // Alignment keys and field hashes of all events of one index
+    private static class Hashes implements SSEStreamParser.EventHandler {
+        final long[] keys;
+        final long[] fields;
+        final BitSet hasId;
+        private int row;
+
+        private Hashes(int size) {
+            keys = new long[size];
+            fields = new long[size];
+            hasId = new BitSet(size);
+        }
+
+        static Hashes of(SSEEventIndex events) {
+            Hashes hashes = new Hashes(events.size());
+            SSEStreamParser parser = new SSEStreamParser(hashes);
+            byte[] buffer = null;
+            for (int row = 0; row < events.size(); row += CHECK_INTERVAL) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return null;
+                }
+                buffer = events.feedEvents(parser, row, Math.min(events.size(), row + CHECK_INTERVAL), buffer);
+            }
+            parser.flush();
+            return hashes;
+        }
+
+        @Override
+        public void onEvent(SSEStreamParser parser) {
+            if (row >= keys.length) {
+                return;
+            }
+            long type = hash(FNV_OFFSET, parser.eventTypeBytes(), parser.eventTypeLength());
+            long content = hash(type, parser.dataBytes(), parser.dataLength());
+            if (parser.idLength() >= 0) {
+                // Seeded apart from content keys so an id never aligns with a payload
+                keys[row] = hash(~FNV_OFFSET, parser.idBytes(), parser.idLength());
+                hasId.set(row);
+            } else {
+                keys[row] = content;
+            }
+            long fields = hash(content, parser.idBytes(), parser.idLength());
+            fields = (fields ^ parser.retry()) * FNV_PRIME;
+            this.fields[row] = fields;
+            row++;
+        }
+
+        // FNV-1a; a missing field (length -1) hashes differently from an empty one
+        private static long hash(long hash, byte[] bytes, int length) {
+            hash = (hash ^ (length + 1)) * FNV_PRIME;
+            for (int i = 0; i < length; i++) {
+                hash = (hash ^ (bytes[i] & 0xff)) * FNV_PRIME;
+            }
+            return hash;
+        }
+    }
+}
@@ -1,3 +1,7 @@
+/**
+ * Decoded fields of one event. Indexes keep events as columns and build
+ * these on demand, for the few events being shown or compared.
+ */
 public class SSEEvent {
     public String event;
     public String data;
@@ -0,0 +1,541 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar index of the events in a response body. Each event is a row of
+ * primitive columns over the original bytes: the offset and length of its
+ * block and of its data, a dictionary code for the event type, the id as a
+ * number or a slice, the retry value, the data size and its format. Fields
+ * are read from the columns without re-parsing; only data joined from
+ * several lines is decoded by re-parsing the block. An index can also be
+ * backed by an {@link SSESegmentStore}, in which case the blocks and the
+ * columns live on disk and only a reference to them stays on the heap.
+ */
+public class SSEEventIndex {
+
+    private static final FormatType[] FORMATS = FormatType.values();
+    // Heap kept by a spilled index
+    private static final long SPILLED_OVERHEAD = 96;
+    // Heap per row: block start, block length, data start, data length, type
+    // code, id and format
+    private static final long ROW_BYTES = 4 + 4 + 4 + 4 + 4 + 8 + 1;
+    // Id column: values >= 0 are numeric ids, ~(offset << 24 | length) a slice
+    private static final long ID_NONE = Long.MIN_VALUE;
+    private static final long ID_UNSTORED = Long.MIN_VALUE + 1;
+    private static final int ID_LENGTH_BITS = 24;
+    // Type dictionary code of events without a type
+    private static final int NO_TYPE = 0;
+    private static final long NO_RETRY = -1;
+    // Block bytes parsed for the preview of data joined from several lines,
+    // beyond the 4 per char, leaving room for field names and other lines
+    private static final int PREVIEW_SLACK = 1024;
+
+    private final byte[] source;
+    private final int[] starts;
+    private final int[] lengths;
+    // -1 for data joined from several lines
+    private final int[] dataStarts;
+    private final int[] dataLengths;
+    private final int[] types;
+    // Indexed by type code; shared by all rows, so decoded events share the strings
+    private final String[] typeNames;
+    private final long[] ids;
+    // Null until an event with a retry field is seen
+    private final long[] retries;
+    // FormatType ordinals
+    private final byte[] formats;
+    private final int size;
+    // Events on disk; null for indexes over a heap body
+    private final SSESegmentStore.Span span;
+
+    private SSEEventIndex(byte[] source, int[] starts, int[] lengths, int[] dataStarts, int[] dataLengths,
+                          int[] types, String[] typeNames, long[] ids, long[] retries, byte[] formats, int size,
+                          SSESegmentStore.Span span) {
+        this.source = source;
+        this.starts = starts;
+        this.lengths = lengths;
+        this.dataStarts = dataStarts;
+        this.dataLengths = dataLengths;
+        this.types = types;
+        this.typeNames = typeNames;
+        this.ids = ids;
+        this.retries = retries;
+        this.formats = formats;
+        this.size = size;
+        this.span = span;
+    }
+
+    static SSEEventIndex spilled(SSESegmentStore.Span span) {
+        return new SSEEventIndex(null, null, null, null, null, null, null, null, null, null, span.size(), span);
+    }
+
+    public static SSEEventIndex empty() {
+        return new SSEEventIndex(new byte[0], new int[0], new int[0], new int[0], new int[0], new int[0],
+            new String[] {null}, new long[0], null, new byte[0], 0, null);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Whether the events are stored on disk rather than in a heap body. */
+    public boolean isSpilled() {
+        return span != null;
+    }
+
+    /** The response body; only available when the index is not spilled. */
+    public byte[] source() {
+        checkHeap();
+        return source;
+    }
+
+    /** Offset of the event block in {@link #source()}; only available when the index is not spilled. */
+    public int eventStart(int row) {
+        checkRow(row);
+        checkHeap();
+        return starts[row];
+    }
+
+    /** Length of the event block, including its terminating blank line. */
+    public int eventLength(int row) {
+        checkRow(row);
+        return span != null ? span.eventLength(row) : lengths[row];
+    }
+
+    /** Size of the event data in UTF-8 bytes. */
+    public int dataLength(int row) {
+        checkRow(row);
+        return span != null ? span.dataLength(row) : dataLengths[row];
+    }
+
+    public FormatType format(int row) {
+        checkRow(row);
+        return FORMATS[span != null ? span.format(row) : formats[row]];
+    }
+
+    /** The event type, or null when the event has none. */
+    public String eventType(int row) {
+        checkRow(row);
+        if (span != null) {
+            return span.hasType(row) ? span.typeName(span.typeId(row)) : null;
+        }
+        return typeNames[types[row]];
+    }
+
+    /**
+     * Dictionary code of the event type, shared by all rows of the same type;
+     * 0 for events without a type. Only available when the index is not spilled.
+     */
+    public int eventTypeCode(int row) {
+        checkRow(row);
+        checkHeap();
+        return types[row];
+    }
+
+    /** The event type of a dictionary code, null for code 0. Only available when the index is not spilled. */
+    public String typeName(int code) {
+        checkHeap();
+        return typeNames[code];
+    }
+
+    /** The event id, or null when the event has none. */
+    public String id(int row) {
+        checkRow(row);
+        long id = span != null ? span.id(row) : ids[row];
+        if (id == ID_UNSTORED) {
+            return decode(row).id;
+        }
+        if (id == ID_NONE) {
+            return null;
+        }
+        if (id >= 0) {
+            return Long.toString(id);
+        }
+        long slice = ~id;
+        return string(row, (int) (slice >>> ID_LENGTH_BITS), (int) (slice & ((1 << ID_LENGTH_BITS) - 1)));
+    }
+
+    /** Retry value in milliseconds, or -1 when the event has none. */
+    public long retry(int row) {
+        checkRow(row);
+        if (span != null) {
+            Long retry = decode(row).retry;
+            return retry != null ? retry : NO_RETRY;
+        }
+        return retries != null ? retries[row] : NO_RETRY;
+    }
+
+    /** The event data; single-line data is decoded straight from the body. */
+    public String data(int row) {
+        checkRow(row);
+        int dataStart = span != null ? span.dataStart(row) : dataStarts[row];
+        if (dataStart < 0) {
+            return decode(row).data;
+        }
+        return string(row, dataStart, dataLength(row));
+    }
+
+    /**
+     * The first {@code maxChars} chars of the data followed by "..." when it
+     * is longer. Only the start of the data or of the block is decoded.
+     */
+    public String dataPreview(int row, int maxChars) {
+        checkRow(row);
+        int dataStart = span != null ? span.dataStart(row) : dataStarts[row];
+        int dataLength = dataLength(row);
+        String data;
+        if (dataStart < 0) {
+            // Data joined from several lines: parse just the start of the block
+            int length = Math.min(eventLength(row), 4 * maxChars + PREVIEW_SLACK);
+            SSEStreamParser parser = new SSEStreamParser();
+            List<SSEEvent> events;
+            if (span != null) {
+                byte[] block = new byte[length];
+                span.copyEvent(row, 0, block, length);
+                events = parser.feed(block, 0, length);
+            } else {
+                events = parser.feed(source, starts[row], length);
+            }
+            events.addAll(parser.flush());
+            data = events.isEmpty() || events.get(0).data == null ? "" : events.get(0).data;
+            if (data.length() <= maxChars && length < eventLength(row)
+                    && data.getBytes(StandardCharsets.UTF_8).length < dataLength) {
+                return data + "...";
+            }
+        } else {
+            // A char takes at most 4 bytes; a sequence cut at the end lies past maxChars
+            int length = Math.min(dataLength, 4 * maxChars + 4);
+            data = string(row, dataStart, length);
+            if (length < dataLength) {
+                return data.substring(0, Math.min(data.length(), maxChars)) + "...";
+            }
+        }
+        return data.length() > maxChars ? data.substring(0, maxChars) + "..." : data;
+    }
+
+    // Decodes bytes at an offset into the source, or into the block when spilled
+    private String string(int row, int offset, int length) {
+        if (span == null) {
+            return new String(source, offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        span.copyEvent(row, offset, bytes, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Id column value of a heap row, with slice offsets made relative to its block. */
+    long blockId(int row) {
+        long id = ids[row];
+        if (id >= 0 || id == ID_NONE || id == ID_UNSTORED) {
+            return id;
+        }
+        long slice = ~id;
+        return ~((slice >>> ID_LENGTH_BITS) - starts[row] << ID_LENGTH_BITS | slice & ((1 << ID_LENGTH_BITS) - 1));
+    }
+
+    /** Offset of single-line data of a heap row in its block, or -1. */
+    int blockDataStart(int row) {
+        return dataStarts[row] < 0 ? -1 : dataStarts[row] - starts[row];
+    }
+
+    /**
+     * Decodes the event at {@code row}. Each call allocates a fresh
+     * {@link SSEEvent}; its type string is shared with the other rows.
+     */
+    public SSEEvent decode(int row) {
+        checkRow(row);
+        if (span == null && dataStarts[row] >= 0 && ids[row] != ID_UNSTORED) {
+            SSEEvent event = new SSEEvent();
+            event.event = typeNames[types[row]];
+            event.id = id(row);
+            event.retry = retries != null && retries[row] != NO_RETRY ? retries[row] : null;
+            event.data = data(row);
+            return event;
+        }
+        SSEStreamParser parser = new SSEStreamParser();
+        List<SSEEvent> events;
+        if (span != null) {
+            byte[] block = new byte[span.eventLength(row)];
+            span.copyEvent(row, block);
+            events = parser.feed(block, 0, block.length);
+        } else {
+            events = parser.feed(source, starts[row], lengths[row]);
+        }
+        events.addAll(parser.flush());
+        return events.isEmpty() ? new SSEEvent() : events.get(0);
+    }
+
+    /**
+     * Copies the raw block of {@code row} to the start of {@code buffer},
+     * which is grown as needed and returned for reuse.
+     */
+    public byte[] copyEvent(int row, byte[] buffer) {
+        int length = eventLength(row);
+        if (buffer == null || buffer.length < length) {
+            buffer = new byte[Math.max(length, 8192)];
+        }
+        if (span != null) {
+            span.copyEvent(row, buffer);
+        } else {
+            System.arraycopy(source, starts[row], buffer, 0, length);
+        }
+        return buffer;
+    }
+
+    /**
+     * Feeds the raw blocks of rows {@code [from, to)} to a handler-mode
+     * parser, in order. Spilled blocks are copied through {@code buffer},
+     * which is grown as needed and returned for reuse.
+     */
+    public byte[] feedEvents(SSEStreamParser parser, int from, int to, byte[] buffer) {
+        if (from >= to) {
+            return buffer;
+        }
+        checkRow(from);
+        checkRow(to - 1);
+        if (span == null) {
+            parser.feed(source, starts[from], starts[to - 1] + lengths[to - 1] - starts[from]);
+            return buffer;
+        }
+        for (int row = from; row < to; row++) {
+            buffer = copyEvent(row, buffer);
+            parser.feed(buffer, 0, span.eventLength(row));
+        }
+        return buffer;
+    }
+
+    /** Approximate heap retained by the index, including the source bytes. */
+    public long retainedBytes() {
+        if (span != null) {
+            return SPILLED_OVERHEAD;
+        }
+        return source.length + ROW_BYTES * starts.length + (retries != null ? 8L * retries.length : 0);
+    }
+
+    SSESegmentStore.Span span() {
+        return span;
+    }
+
+    private void checkHeap() {
+        if (span != null) {
+            throw new IllegalStateException("Index is spilled to disk");
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of " + size);
+        }
+    }
+
+    /**
+     * Collects the columns of the events an {@link SSEStreamParser} fed with
+     * {@code source} dispatches. Rows are append-only, so snapshots taken
+     * while parsing stay valid and can be handed to other threads.
+     */
+    public static class Builder implements SSEStreamParser.EventHandler {
+        // Beyond this many types, codes are looked up by name instead of by scanning
+        private static final int TYPE_SCAN_LIMIT = 16;
+        private final byte[] source;
+        private final FormatDetector formatDetector = new FormatDetector();
+        private int[] starts = new int[64];
+        private int[] lengths = new int[64];
+        private int[] dataStarts = new int[64];
+        private int[] dataLengths = new int[64];
+        private int[] types = new int[64];
+        private long[] ids = new long[64];
+        private long[] retries;
+        private byte[] formats = new byte[64];
+        private int size;
+        // Type dictionary; code 0 stands for no type
+        private String[] typeNames = new String[8];
+        private byte[][] typeBytes = new byte[8][];
+        private int typeCount = 1;
+        private int lastType = NO_TYPE;
+        private Map<String, Integer> typeCodes;
+
+        public Builder(byte[] source) {
+            this.source = source;
+        }
+
+        @Override
+        public void onEvent(SSEStreamParser parser) {
+            if (size == starts.length) {
+                int capacity = size * 2;
+                starts = Arrays.copyOf(starts, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                dataStarts = Arrays.copyOf(dataStarts, capacity);
+                dataLengths = Arrays.copyOf(dataLengths, capacity);
+                types = Arrays.copyOf(types, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                formats = Arrays.copyOf(formats, capacity);
+                if (retries != null) {
+                    retries = Arrays.copyOf(retries, capacity);
+                }
+            }
+            starts[size] = (int) parser.eventStart();
+            lengths[size] = (int) (parser.eventEnd() - parser.eventStart());
+            dataStarts[size] = (int) parser.dataOffset();
+            dataLengths[size] = parser.dataLength();
+            types[size] = typeCode(parser.eventTypeBytes(), parser.eventTypeLength());
+            ids[size] = idValue(parser.idBytes(), parser.idLength(), parser.idOffset());
+            if (parser.retry() != NO_RETRY) {
+                if (retries == null) {
+                    retries = new long[starts.length];
+                    Arrays.fill(retries, NO_RETRY);
+                }
+                retries[size] = parser.retry();
+            } else if (retries != null) {
+                retries[size] = NO_RETRY;
+            }
+            formats[size] = (byte) formatDetector.detectFormat(parser.dataBytes(), 0, parser.dataLength()).ordinal();
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /** Type dictionary code of a row added so far; see {@link SSEEventIndex#eventTypeCode}. */
+        public int typeCode(int row) {
+            return types[row];
+        }
+
+        public FormatType format(int row) {
+            return FORMATS[formats[row]];
+        }
+
+        public int dataLength(int row) {
+            return dataLengths[row];
+        }
+
+        /**
+         * Appends the rows of {@code other}, built over the same source from
+         * the part of the stream following this one's, remapping its type codes.
+         */
+        public void append(Builder other) {
+            if (other.source != source) {
+                throw new IllegalArgumentException("Builders index different bodies");
+            }
+            int capacity = size + other.size;
+            if (capacity > starts.length) {
+                starts = Arrays.copyOf(starts, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                dataStarts = Arrays.copyOf(dataStarts, capacity);
+                dataLengths = Arrays.copyOf(dataLengths, capacity);
+                types = Arrays.copyOf(types, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                formats = Arrays.copyOf(formats, capacity);
+                if (retries != null) {
+                    retries = Arrays.copyOf(retries, capacity);
+                }
+            }
+            System.arraycopy(other.starts, 0, starts, size, other.size);
+            System.arraycopy(other.lengths, 0, lengths, size, other.size);
+            System.arraycopy(other.dataStarts, 0, dataStarts, size, other.size);
+            System.arraycopy(other.dataLengths, 0, dataLengths, size, other.size);
+            System.arraycopy(other.ids, 0, ids, size, other.size);
+            System.arraycopy(other.formats, 0, formats, size, other.size);
+            if (other.retries != null || retries != null) {
+                if (retries == null) {
+                    retries = new long[starts.length];
+                    Arrays.fill(retries, NO_RETRY);
+                }
+                if (other.retries != null) {
+                    System.arraycopy(other.retries, 0, retries, size, other.size);
+                } else {
+                    Arrays.fill(retries, size, capacity, NO_RETRY);
+                }
+            }
+            int[] codes = new int[other.typeCount];
+            for (int code = 1; code < other.typeCount; code++) {
+                byte[] name = other.typeBytes[code];
+                codes[code] = typeCode(name, name.length);
+            }
+            for (int row = 0; row < other.size; row++) {
+                types[size + row] = codes[other.types[row]];
+            }
+            size = capacity;
+        }
+
+        public SSEEventIndex snapshot() {
+            return new SSEEventIndex(source, starts, lengths, dataStarts, dataLengths, types, typeNames, ids, retries,
+                formats, size, null);
+        }
+
+        // Streams repeat a handful of types, so the previous code usually matches
+        private int typeCode(byte[] bytes, int length) {
+            if (length < 0) {
+                return NO_TYPE;
+            }
+            if (lastType != NO_TYPE && Arrays.equals(typeBytes[lastType], 0, typeBytes[lastType].length,
+                    bytes, 0, length)) {
+                return lastType;
+            }
+            Integer code = null;
+            if (typeCodes == null) {
+                for (int i = 1; i < typeCount; i++) {
+                    if (Arrays.equals(typeBytes[i], 0, typeBytes[i].length, bytes, 0, length)) {
+                        code = i;
+                        break;
+                    }
+                }
+            } else {
+                code = typeCodes.get(new String(bytes, 0, length, StandardCharsets.UTF_8));
+            }
+            if (code == null) {
+                code = addType(Arrays.copyOf(bytes, length));
+            }
+            lastType = code;
+            return code;
+        }
+
+        private int addType(byte[] bytes) {
+            if (typeCount == typeNames.length) {
+                // Snapshots keep the previous arrays, which hold all codes they use
+                typeNames = Arrays.copyOf(typeNames, typeCount * 2);
+                typeBytes = Arrays.copyOf(typeBytes, typeCount * 2);
+            }
+            int code = typeCount++;
+            typeNames[code] = new String(bytes, StandardCharsets.UTF_8);
+            typeBytes[code] = bytes;
+            if (typeCodes == null && typeCount > TYPE_SCAN_LIMIT) {
+                typeCodes = new HashMap<>();
+                for (int i = 1; i < typeCount; i++) {
+                    typeCodes.put(typeNames[i], i);
+                }
+            } else if (typeCodes != null) {
+                typeCodes.put(typeNames[code], code);
+            }
+            return code;
+        }
+
+        // Canonical decimal ids are stored as numbers, others as slices of the body
+        private static long idValue(byte[] bytes, int length, long offset) {
+            if (length < 0) {
+                return ID_NONE;
+            }
+            if (length > 0 && length <= 18 && (bytes[0] != '0' || length == 1)) {
+                long value = 0;
+                int i = 0;
+                while (i < length && bytes[i] >= '0' && bytes[i] <= '9') {
+                    value = value * 10 + (bytes[i++] - '0');
+                }
+                if (i == length) {
+                    return value;
+                }
+            }
+            if (offset < 0 || length >= 1 << ID_LENGTH_BITS) {
+                return ID_UNSTORED;
+            }
+            return ~(offset << ID_LENGTH_BITS | length);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * Writes events to NDJSON, CSV or raw SSE files. Events are re-parsed from
+ * the index and their field bytes escaped straight into a direct buffer in
+ * front of a channel, so no per-event strings are built and an export runs
+ * in constant memory however many events it covers.
+ */
+public class SSEExporter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CSV_HEADER =
+        "url,event_number,event,id,retry,format,data\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final FormatType[] FORMATS = FormatType.values();
+    private static final byte[][] FORMAT_NAMES = new byte[FORMATS.length][];
+    static {
+        for (FormatType format : FORMATS) {
+            FORMAT_NAMES[format.ordinal()] = format.getDisplayName().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    public enum Format {
+        NDJSON("NDJSON", "ndjson"),
+        CSV("CSV", "csv"),
+        SSE("Raw SSE", "sse");
+
+        private final String displayName;
+        private final String extension;
+
+        Format(String displayName, String extension) {
+            this.displayName = displayName;
+            this.extension = extension;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    private final Format format;
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final FormatDetector formatDetector = new FormatDetector();
+    // Reused for copying event blocks out of the index
+    private byte[] blockBuffer;
+    private long eventCount;
+    // Of the events being written; null when written from a parser
+    private SSEEventIndex events;
+    private byte[] url;
+    private int row;
+    private int end;
+
+    public SSEExporter(Path path, Format format) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE), format);
+    }
+
+    /** Writes to {@code channel}, which is closed along with the exporter. */
+    public SSEExporter(WritableByteChannel channel, Format format) throws IOException {
+        this.format = format;
+        this.channel = channel;
+        if (format == Format.CSV) {
+            put(CSV_HEADER, 0, CSV_HEADER.length);
+        }
+    }
+
+    /**
+     * Writes the given rows of {@code events}, or all rows when {@code rows}
+     * is null. {@code url} names the response in NDJSON and CSV records and
+     * may be null. Stops early when the thread is interrupted.
+     */
+    public void write(SSEEventIndex events, BitSet rows, String url) throws IOException {
+        this.events = events;
+        this.url = url != null ? url.getBytes(StandardCharsets.UTF_8) : null;
+        int size = events.size();
+        int from = rows != null ? rows.nextSetBit(0) : 0;
+        while (from >= 0 && from < size) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            // Runs of consecutive rows are fed to the parser in one go
+            int to = rows != null ? Math.min(size, rows.nextClearBit(from)) : size;
+            if (format == Format.SSE) {
+                for (int i = from; i < to; i++) {
+                    writeRaw(i);
+                }
+            } else {
+                row = from;
+                end = to;
+                SSEStreamParser parser = new SSEStreamParser(this::writeRecord);
+                try {
+                    blockBuffer = events.feedEvents(parser, from, to, blockBuffer);
+                    parser.flush();
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            from = rows != null ? rows.nextSetBit(to) : -1;
+        }
+    }
+
+    /**
+     * Returns a handler writing every event a parser dispatches as the next
+     * record of a response named {@code url}, for streams parsed straight
+     * from their source rather than indexed. Formats are detected from the
+     * data; raw SSE output needs the index. I/O errors are rethrown from the
+     * parser's {@code feed} and {@code flush} as {@link UncheckedIOException}.
+     */
+    public SSEStreamParser.EventHandler recordWriter(String url) {
+        if (format == Format.SSE) {
+            throw new IllegalStateException("Raw SSE export needs an event index");
+        }
+        this.events = null;
+        this.url = url != null ? url.getBytes(StandardCharsets.UTF_8) : null;
+        row = 0;
+        end = Integer.MAX_VALUE;
+        return this::writeRecord;
+    }
+
+    public long eventCount() {
+        return eventCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeRecord(SSEStreamParser parser) {
+        if (row >= end) {
+            return;
+        }
+        int current = row++;
+        try {
+            if (format == Format.NDJSON) {
+                putAscii("{");
+                if (url != null) {
+                    putAscii("\"url\":");
+                    putJsonString(url, url.length);
+                    putAscii(",");
+                }
+                putAscii("\"event_number\":");
+                putNumber(current + 1);
+                if (parser.eventTypeLength() >= 0) {
+                    putAscii(",\"event\":");
+                    putJsonString(parser.eventTypeBytes(), parser.eventTypeLength());
+                }
+                if (parser.idLength() >= 0) {
+                    putAscii(",\"id\":");
+                    putJsonString(parser.idBytes(), parser.idLength());
+                }
+                if (parser.retry() >= 0) {
+                    putAscii(",\"retry\":");
+                    putNumber(parser.retry());
+                }
+                putAscii(",\"format\":");
+                byte[] formatName = FORMAT_NAMES[format(parser, current).ordinal()];
+                putJsonString(formatName, formatName.length);
+                putAscii(",\"data\":");
+                putJsonString(parser.dataBytes(), parser.dataLength());
+                putAscii("}\n");
+            } else {
+                putCsvField(url, url != null ? url.length : 0);
+                putAscii(",");
+                putNumber(current + 1);
+                putAscii(",");
+                putCsvField(parser.eventTypeBytes(), Math.max(0, parser.eventTypeLength()));
+                putAscii(",");
+                putCsvField(parser.idBytes(), Math.max(0, parser.idLength()));
+                putAscii(",");
+                if (parser.retry() >= 0) {
+                    putNumber(parser.retry());
+                }
+                putAscii(",");
+                byte[] formatName = FORMAT_NAMES[format(parser, current).ordinal()];
+                put(formatName, 0, formatName.length);
+                putAscii(",");
+                putCsvField(parser.dataBytes(), parser.dataLength());
+                putAscii("\r\n");
+            }
+            eventCount++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private FormatType format(SSEStreamParser parser, int row) {
+        return events != null ? events.format(row)
+            : formatDetector.detectFormat(parser.dataBytes(), 0, parser.dataLength());
+    }
+
+    // The event block as it appeared in the response, ending in a blank line
+    private void writeRaw(int row) throws IOException {
+        blockBuffer = events.copyEvent(row, blockBuffer);
+        int length = events.eventLength(row);
+        put(blockBuffer, 0, length);
+        // The last event of a stream may end without its blank line
+        int breaks = 0;
+        for (int i = length - 1; i >= 0 && breaks < 2; i--) {
+            byte b = blockBuffer[i];
+            if (b == '\n') {
+                breaks++;
+                if (i > 0 && blockBuffer[i - 1] == '\r') {
+                    i--;
+                }
+            } else if (b == '\r') {
+                breaks++;
+            } else {
+                break;
+            }
+        }
+        for (; breaks < 2; breaks++) {
+            putAscii("\n");
+        }
+        eventCount++;
+    }
+
+    // UTF-8 is copied through; quotes, backslashes and control characters are escaped
+    private void putJsonString(byte[] bytes, int length) throws IOException {
+        putByte('"');
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            int b = bytes[i] & 0xff;
+            if (b >= 0x20 && b != '"' && b != '\\') {
+                continue;
+            }
+            put(bytes, start, i - start);
+            start = i + 1;
+            putByte('\\');
+            switch (b) {
+                case '"': putByte('"'); break;
+                case '\\': putByte('\\'); break;
+                case '\n': putByte('n'); break;
+                case '\r': putByte('r'); break;
+                case '\t': putByte('t'); break;
+                case '\b': putByte('b'); break;
+                case '\f': putByte('f'); break;
+                default:
+                    putAscii("u00");
+                    putByte(HEX[b >> 4]);
+                    putByte(HEX[b & 0xf]);
+            }
+        }
+        put(bytes, start, length - start);
+        putByte('"');
+    }
+
+    // Always quoted, with quotes doubled (RFC 4180); line breaks stay inside the quotes
+    private void putCsvField(byte[] bytes, int length) throws IOException {
+        putByte('"');
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] == '"') {
+                put(bytes, start, i + 1 - start);
+                start = i;
+            }
+        }
+        put(bytes, start, length - start);
+        putByte('"');
+    }
+
+    private void putNumber(long value) throws IOException {
+        if (value >= 10) {
+            putNumber(value / 10);
+        }
+        putByte('0' + (int) (value % 10));
+    }
+
+    private void putAscii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            putByte(text.charAt(i));
+        }
+    }
+
+    private void putByte(int b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put((byte) b);
+    }
+
+    private void put(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int chunk = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,148 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+/**
+ * Parses large bodies on a fork-join pool. The body is cut into ranges at
+ * event boundaries - just past a blank line, where the sequential parser
+ * holds no state - so each range is parsed on its own and the results,
+ * concatenated in range order, equal those of a single sequential pass.
+ */
+public class SSEParallelParser {
+
+    /** Bodies below this size are parsed sequentially. */
+    public static final int PARALLEL_THRESHOLD = 8 * 1024 * 1024;
+    // Ranges are at least this large, and at most a few per worker
+    private static final int MIN_RANGE_SIZE = 1024 * 1024;
+    private static final int RANGES_PER_WORKER = 4;
+    // Bytes fed to a range's parser between cancellation checks
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    private SSEParallelParser() {
+    }
+
+    /**
+     * Builds the event index of {@code body}, returning null when the
+     * calling thread is interrupted.
+     */
+    public static SSEEventIndex index(byte[] body, ForkJoinPool pool) {
+        return index(body, pool, MIN_RANGE_SIZE);
+    }
+
+    static SSEEventIndex index(byte[] body, ForkJoinPool pool, int minRangeSize) {
+        // Called in range order, so the builders line up with the ranges
+        List<SSEEventIndex.Builder> builders = new ArrayList<>();
+        List<List<SSEEvent>> parts = parse(body, 0, body.length, pool, minRangeSize, start -> {
+            SSEEventIndex.Builder builder = new SSEEventIndex.Builder(body);
+            builders.add(builder);
+            return start == 0 ? new SSEStreamParser(builder) : new SSEStreamParser(builder, start);
+        });
+        if (parts == null) {
+            return null;
+        }
+        SSEEventIndex.Builder index = builders.get(0);
+        for (int i = 1; i < builders.size(); i++) {
+            index.append(builders.get(i));
+        }
+        return index.snapshot();
+    }
+
+    /**
+     * Parses {@code length} bytes of {@code body} into events, returning null
+     * when the calling thread is interrupted.
+     */
+    public static List<SSEEvent> events(byte[] body, int offset, int length, ForkJoinPool pool) {
+        return events(body, offset, length, pool, MIN_RANGE_SIZE);
+    }
+
+    static List<SSEEvent> events(byte[] body, int offset, int length, ForkJoinPool pool, int minRangeSize) {
+        List<List<SSEEvent>> parts = parse(body, offset, offset + length, pool, minRangeSize,
+            start -> start == offset ? new SSEStreamParser() : new SSEStreamParser(null, start));
+        if (parts == null) {
+            return null;
+        }
+        List<SSEEvent> events = new ArrayList<>();
+        for (List<SSEEvent> part : parts) {
+            events.addAll(part);
+        }
+        return events;
+    }
+
+    /**
+     * Offset just past the first blank line ending at or after {@code from},
+     * or {@code end} when there is none. A byte can only be told to start a
+     * line after a terminator has been seen: an LF always ends one, a CR
+     * unless an LF follows.
+     */
+    static int nextBoundary(byte[] body, int from, int end) {
+        for (int i = from; i < end; i++) {
+            byte b = body[i];
+            if (b != '\n' && (b != '\r' || i + 1 < end && body[i + 1] == '\n')) {
+                continue;
+            }
+            int line = i + 1;
+            if (line < end && body[line] == '\n') {
+                return line + 1;
+            }
+            if (line < end && body[line] == '\r') {
+                return line + 1 < end && body[line + 1] == '\n' ? line + 2 : line + 1;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Splits {@code [start, end)} into ranges of at least {@code minRangeSize}
+     * bytes and feeds each to the parser
+     * {@code parsers} creates for its start offset, concurrently. Returns the
+     * events each parser returned, in range order, or null when interrupted.
+     */
+    private static List<List<SSEEvent>> parse(byte[] body, int start, int end, ForkJoinPool pool,
+                                              int minRangeSize, IntFunction<SSEStreamParser> parsers) {
+        int count = (int) Math.min((long) pool.getParallelism() * RANGES_PER_WORKER,
+            Math.max(1, (end - start) / minRangeSize));
+        long step = (end - start) / count;
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<ForkJoinTask<List<SSEEvent>>> tasks = new ArrayList<>();
+        int rangeStart = start;
+        for (int i = 1; i <= count && rangeStart < end; i++) {
+            int from = rangeStart;
+            int to = i == count ? end : nextBoundary(body, (int) Math.max(from, start + step * i), end);
+            SSEStreamParser parser = parsers.apply(from);
+            tasks.add(pool.submit(() -> parseRange(parser, body, from, to, cancelled)));
+            rangeStart = to;
+        }
+        List<List<SSEEvent>> results = new ArrayList<>(tasks.size());
+        try {
+            for (ForkJoinTask<List<SSEEvent>> task : tasks) {
+                results.add(task.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            // Workers do not see the interrupt, so they stop at the next chunk
+            cancelled.set(true);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            cancelled.set(true);
+            throw new IllegalStateException("Error parsing SSE range", e.getCause());
+        }
+    }
+
+    private static List<SSEEvent> parseRange(SSEStreamParser parser, byte[] body, int start, int end,
+                                             AtomicBoolean cancelled) {
+        List<SSEEvent> events = new ArrayList<>();
+        for (int offset = start; offset < end; offset += CHUNK_SIZE) {
+            if (cancelled.get()) {
+                return events;
+            }
+            events.addAll(parser.feed(body, offset, Math.min(CHUNK_SIZE, end - offset)));
+        }
+        events.addAll(parser.flush());
+        return events;
+    }
+}
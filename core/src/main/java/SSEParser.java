@@ -0,0 +1,49 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class SSEParser {
+
+    // Bodies from SSEParallelParser.PARALLEL_THRESHOLD up are parsed on this pool; null for sequential only
+    private final ForkJoinPool pool;
+
+    public SSEParser() {
+        this(null);
+    }
+
+    public SSEParser(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public List<SSEEvent> parseSSE(String body) {
+        if (body == null || body.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return parseSSE(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public List<SSEEvent> parseSSE(byte[] body) {
+        if (body == null) {
+            return new ArrayList<>();
+        }
+        return parseSSE(body, 0, body.length);
+    }
+
+    /**
+     * Parses SSE events in a single forward pass over the raw body bytes.
+     * Lines may end in CRLF, LF or CR. Field values are decoded as UTF-8 and
+     * only the values of dispatched events are allocated. Large bodies are
+     * parsed in parallel when a pool is set, with the same result.
+     */
+    public List<SSEEvent> parseSSE(byte[] body, int offset, int length) {
+        if (pool != null && length >= SSEParallelParser.PARALLEL_THRESHOLD) {
+            List<SSEEvent> events = SSEParallelParser.events(body, offset, length, pool);
+            return events != null ? events : new ArrayList<>();
+        }
+        SSEStreamParser stream = new SSEStreamParser();
+        List<SSEEvent> events = stream.feed(body, offset, length);
+        events.addAll(stream.flush());
+        return events;
+    }
+}
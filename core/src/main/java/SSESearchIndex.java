@@ -0,0 +1,270 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.regex.Pattern;
+
+/**
+ * Trigram index over the data, type and id of every event in an
+ * {@link SSEEventIndex}, built once per response. Trigrams are ASCII
+ * case-folded and hashed into a fixed number of buckets. A query intersects
+ * the buckets of its own trigrams and only decodes the remaining candidate
+ * rows to confirm the match, so selective queries never touch most payloads.
+ */
+public class SSESearchIndex {
+
+    private static final int BUCKET_BITS = 16;
+    private static final int BUCKETS = 1 << BUCKET_BITS;
+    // Rows parsed or verified between interruption checks
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final SSEEventIndex events;
+    // Per bucket: sorted rows as int[], a long[] bitmap once dense, or null
+    private final Object[] postings;
+    private final int[] counts;
+
+    private SSESearchIndex(SSEEventIndex events, Object[] postings, int[] counts) {
+        this.events = events;
+        this.postings = postings;
+        this.counts = counts;
+    }
+
+    /** Indexes every row of {@code events}; returns null when the thread is interrupted. */
+    public static SSESearchIndex build(SSEEventIndex events) {
+        int size = events.size();
+        Collector collector = new Collector(size);
+        if (size > 0) {
+            // Only the event blocks need to be re-parsed, not the whole body
+            SSEStreamParser parser = new SSEStreamParser(collector);
+            byte[] buffer = null;
+            for (int row = 0; row < size; row += CHECK_INTERVAL) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return null;
+                }
+                buffer = events.feedEvents(parser, row, Math.min(size, row + CHECK_INTERVAL), buffer);
+            }
+            parser.flush();
+        }
+
+        Object[] postings = new Object[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            int count = collector.counts[bucket];
+            if (count == 0) {
+                continue;
+            }
+            int[] rows = collector.rows[bucket];
+            if (count > size / 32) {
+                // A bitmap is smaller than the row list here
+                long[] bitmap = new long[(size + 63) >>> 6];
+                for (int i = 0; i < count; i++) {
+                    bitmap[rows[i] >>> 6] |= 1L << rows[i];
+                }
+                postings[bucket] = bitmap;
+            } else {
+                postings[bucket] = rows.length == count ? rows : Arrays.copyOf(rows, count);
+            }
+            collector.rows[bucket] = null;
+        }
+        return new SSESearchIndex(events, postings, collector.counts);
+    }
+
+    public SSEEventIndex events() {
+        return events;
+    }
+
+    /**
+     * Rows whose data, type or id contains {@code query}, ignoring case.
+     * Returns null when the thread is interrupted.
+     */
+    public BitSet search(String query) {
+        BitSet candidates = candidates(query.getBytes(StandardCharsets.UTF_8));
+        BitSet matches = new BitSet(events.size());
+        int checked = 0;
+        for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+            if (++checked % CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            if (contains(events.decode(row), query)) {
+                matches.set(row);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Rows whose data, type or id has a match of {@code pattern}. Regular
+     * expressions can't use the trigram index, so every row is decoded.
+     * Returns null when the thread is interrupted.
+     */
+    public static BitSet search(SSEEventIndex events, Pattern pattern) {
+        BitSet matches = new BitSet(events.size());
+        for (int row = 0; row < events.size(); row++) {
+            if (row % CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            SSEEvent event = events.decode(row);
+            if (find(pattern, event.data) || find(pattern, event.event) || find(pattern, event.id)) {
+                matches.set(row);
+            }
+        }
+        return matches;
+    }
+
+    /** A mask with one bit per trigram bucket, for {@link #markTrigrams} and {@link #mayContain}. */
+    static long[] newTrigramMask() {
+        return new long[BUCKETS >>> 6];
+    }
+
+    /** Sets the bits of all trigrams of {@code bytes[0, length)} in {@code mask}. */
+    static void markTrigrams(long[] mask, byte[] bytes, int length) {
+        for (int i = 0; i + 2 < length; i++) {
+            int bucket = bucket(fold(bytes[i]), fold(bytes[i + 1]), fold(bytes[i + 2]));
+            mask[bucket >>> 6] |= 1L << bucket;
+        }
+    }
+
+    /** False when text marked into {@code mask} cannot contain {@code query}. */
+    static boolean mayContain(long[] mask, String query) {
+        for (int bucket : queryBuckets(query.getBytes(StandardCharsets.UTF_8))) {
+            if ((mask[bucket >>> 6] & (1L << bucket)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Whether the data, type or id of {@code event} contains {@code query}, ignoring case. */
+    static boolean contains(SSEEvent event, String query) {
+        return containsIgnoreCase(event.data, query) || containsIgnoreCase(event.event, query) ||
+            containsIgnoreCase(event.id, query);
+    }
+
+    // Buckets of the ASCII trigrams of the query; only ASCII is case-folded
+    // in the index, so other trigrams can't be looked up
+    private static int[] queryBuckets(byte[] query) {
+        int[] buckets = new int[Math.max(0, query.length - 2)];
+        int bucketCount = 0;
+        for (int i = 0; i + 2 < query.length; i++) {
+            if (query[i] < 0 || query[i + 1] < 0 || query[i + 2] < 0) {
+                continue;
+            }
+            buckets[bucketCount++] = bucket(fold(query[i]), fold(query[i + 1]), fold(query[i + 2]));
+        }
+        return Arrays.copyOf(buckets, bucketCount);
+    }
+
+    // Rows containing every trigram of the query; all rows if it has none
+    private BitSet candidates(byte[] query) {
+        int size = events.size();
+        int[] buckets = queryBuckets(query);
+        int bucketCount = buckets.length;
+
+        BitSet candidates = new BitSet(size);
+        candidates.set(0, size);
+        if (bucketCount == 0) {
+            return candidates;
+        }
+
+        // Intersect the smallest posting lists first
+        Integer[] order = new Integer[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            order[i] = buckets[i];
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(counts[a], counts[b]));
+
+        for (int i = 0; i < bucketCount && !candidates.isEmpty(); i++) {
+            int bucket = order[i];
+            if (i > 0 && bucket == order[i - 1]) {
+                continue;
+            }
+            Object posting = postings[bucket];
+            if (posting == null) {
+                return new BitSet();
+            }
+            if (posting instanceof long[]) {
+                candidates.and(BitSet.valueOf((long[]) posting));
+            } else {
+                BitSet rows = new BitSet(size);
+                for (int row : (int[]) posting) {
+                    rows.set(row);
+                }
+                candidates.and(rows);
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean containsIgnoreCase(String text, String query) {
+        if (text == null) {
+            return false;
+        }
+        int last = text.length() - query.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, query, 0, query.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean find(Pattern pattern, String text) {
+        return text != null && pattern.matcher(text).find();
+    }
+
+    private static int fold(byte b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b & 0xff;
+    }
+
+    private static int bucket(int a, int b, int c) {
+        return ((a << 16 | b << 8 | c) * 0x9E3779B1) >>> (32 - BUCKET_BITS);
+    }
+
+    // Collects distinct trigram buckets per row while the events are re-parsed
+    private static class Collector implements SSEStreamParser.EventHandler {
+        final int[][] rows = new int[BUCKETS][];
+        final int[] counts = new int[BUCKETS];
+        // Last row added to each bucket, so a row is added at most once
+        private final int[] lastRow = new int[BUCKETS];
+        private final int limit;
+        private int row;
+
+        Collector(int limit) {
+            this.limit = limit;
+            Arrays.fill(lastRow, -1);
+        }
+
+        @Override
+        public void onEvent(SSEStreamParser parser) {
+            if (row >= limit) {
+                return;
+            }
+            add(parser.dataBytes(), parser.dataLength());
+            add(parser.eventTypeBytes(), parser.eventTypeLength());
+            add(parser.idBytes(), parser.idLength());
+            row++;
+        }
+
+        private void add(byte[] bytes, int length) {
+            if (length < 3) {
+                return;
+            }
+            int a = fold(bytes[0]);
+            int b = fold(bytes[1]);
+            for (int i = 2; i < length; i++) {
+                int c = fold(bytes[i]);
+                int bucket = bucket(a, b, c);
+                if (lastRow[bucket] != row) {
+                    lastRow[bucket] = row;
+                    int[] list = rows[bucket];
+                    if (list == null) {
+                        list = rows[bucket] = new int[4];
+                    } else if (counts[bucket] == list.length) {
+                        list = rows[bucket] = Arrays.copyOf(list, list.length * 2);
+                    }
+                    list[counts[bucket]++] = row;
+                }
+                a = b;
+                b = c;
+            }
+        }
+    }
+}
@@ -0,0 +1,373 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only event storage on disk. Raw event blocks are appended to data
+ * segment files, and one fixed-width record per event to index segment
+ * files. Both are read back through memory-mapped regions, so spilled events
+ * cost no heap apart from the event type dictionary. Segment files are
+ * deleted once no stored span uses them any more.
+ */
+public class SSESegmentStore implements Closeable {
+
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final int INDEX_SEGMENT_SIZE = 16 * 1024 * 1024;
+    // Record fields: data segment, offset in it, block length, data length,
+    // type id << 8 | format ordinal, id hash, id column value and data
+    // offset, both relative to the block
+    private static final int RECORD_SIZE = 36;
+    // Set in the format byte of events without a type, which share the "message" type id
+    private static final int NO_TYPE = 0x80;
+    private static final int RECORDS_PER_SEGMENT = INDEX_SEGMENT_SIZE / RECORD_SIZE;
+
+    private final Path parent;
+    private Path directory;
+    private final List<Segment> dataSegments = new ArrayList<>();
+    private final List<Segment> indexSegments = new ArrayList<>();
+    // Type dictionary, read without the lock so lookups don't wait for an append
+    private final Map<String, Integer> typeIds = new ConcurrentHashMap<>();
+    private volatile String[] typeNames = new String[0];
+    private long recordCount;
+    // Written under the lock, read without it
+    private volatile long diskBytes;
+    private int liveSpans;
+    // Never reused, so a file that couldn't be deleted yet doesn't block a new segment
+    private int nextFile;
+
+    /** @param parent directory in which the store creates its own temporary directory */
+    public SSESegmentStore(Path parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Copies the events of a heap index to disk and returns an index over
+     * the stored copy.
+     */
+    public synchronized SSEEventIndex append(SSEEventIndex index) throws IOException {
+        if (index.isSpilled()) {
+            return index;
+        }
+        long firstRecord = recordCount;
+        int dataTail = dataSegments.size() - 1;
+        int indexTail = indexSegments.size() - 1;
+        int size = index.size();
+        // The span starts at the segments its first event went to
+        int firstDataSegment = dataSegments.size();
+        int firstIndexSegment = size > 0 ? (int) (recordCount / RECORDS_PER_SEGMENT) : indexSegments.size();
+        byte[] source = size > 0 ? index.source() : null;
+        for (int row = 0; row < size; row++) {
+            String id = index.id(row);
+            String type = index.eventType(row);
+            appendEvent(source, index.eventStart(row), index.eventLength(row), index.dataLength(row),
+                typeId(type), index.format(row).ordinal() | (type == null ? NO_TYPE : 0),
+                id != null ? id.hashCode() : 0, index.blockId(row), index.blockDataStart(row));
+            if (row == 0) {
+                firstDataSegment = dataSegments.size() - 1;
+            }
+        }
+
+        Span span = new Span(this, firstRecord, size,
+            segments(dataSegments, firstDataSegment), firstDataSegment,
+            segments(indexSegments, firstIndexSegment), firstIndexSegment);
+        for (Segment segment : span.dataSegments) {
+            segment.spans++;
+        }
+        for (Segment segment : span.indexSegments) {
+            segment.spans++;
+        }
+        liveSpans++;
+        // A tail whose spans were all released waited for appends; once
+        // rolled over without gaining a span it can go
+        releaseUnused(dataSegments, dataTail);
+        releaseUnused(indexSegments, indexTail);
+        return SSEEventIndex.spilled(span);
+    }
+
+    /** Gives up the disk space of a span returned by {@link #append}; it stays readable until collected. */
+    public synchronized void release(SSEEventIndex index) {
+        Span span = index.span();
+        if (span == null || span.store != this || span.released) {
+            return;
+        }
+        span.released = true;
+        if (--liveSpans == 0) {
+            // Nothing left to read, so the segments still being appended to can go as well
+            deleteSegments();
+            return;
+        }
+        releaseSegments(span.dataSegments, dataSegments);
+        releaseSegments(span.indexSegments, indexSegments);
+    }
+
+    /**
+     * Bytes of segment files not yet released. The blocks of a deleted file
+     * are only returned once its mapping is collected, which the store no
+     * longer delays.
+     */
+    public long diskBytes() {
+        return diskBytes;
+    }
+
+    /** Dictionary id of an event type, or -1 when no stored event has it. */
+    public int typeIdOf(String type) {
+        Integer id = typeIds.get(type);
+        return id != null ? id : -1;
+    }
+
+    /** The event type with dictionary id {@code id}. */
+    public String typeName(int id) {
+        return typeNames[id];
+    }
+
+    /** Deletes all segment files. Stored spans must not be read afterwards. */
+    @Override
+    public synchronized void close() {
+        deleteSegments();
+        if (directory != null) {
+            try {
+                Files.deleteIfExists(directory);
+            } catch (IOException e) {
+                directory.toFile().deleteOnExit();
+            }
+            directory = null;
+        }
+    }
+
+    private void deleteSegments() {
+        for (List<Segment> segments : List.of(dataSegments, indexSegments)) {
+            for (Segment segment : segments) {
+                if (segment != null && !segment.deleted) {
+                    segment.delete();
+                }
+            }
+            segments.clear();
+        }
+        // Records restart at zero; released spans keep their own segment references
+        recordCount = 0;
+        diskBytes = 0;
+        liveSpans = 0;
+    }
+
+    private void appendEvent(byte[] source, int start, int length, int dataLength, int typeId, int format,
+                             int idHash, long id, int dataStart) throws IOException {
+        Segment data = dataSegments.isEmpty() ? null : dataSegments.get(dataSegments.size() - 1);
+        if (data == null || data.capacity - data.used < length) {
+            // Blocks never straddle segments; oversized blocks get a segment of their own
+            data = newSegment(dataSegments, "data", Math.max(SEGMENT_SIZE, length));
+        }
+        data.buffer.put(data.used, source, start, length);
+
+        int indexSegment = (int) (recordCount / RECORDS_PER_SEGMENT);
+        if (indexSegment == indexSegments.size()) {
+            newSegment(indexSegments, "index", RECORDS_PER_SEGMENT * RECORD_SIZE);
+        }
+        MappedByteBuffer records = indexSegments.get(indexSegment).buffer;
+        int position = (int) (recordCount % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+        records.putInt(position, dataSegments.size() - 1);
+        records.putInt(position + 4, data.used);
+        records.putInt(position + 8, length);
+        records.putInt(position + 12, dataLength);
+        records.putInt(position + 16, typeId << 8 | format);
+        records.putInt(position + 20, idHash);
+        records.putLong(position + 24, id);
+        records.putInt(position + 32, dataStart);
+
+        data.used += length;
+        recordCount++;
+    }
+
+    // Events without a type are "message" events
+    private int typeId(String type) {
+        String name = type != null ? type : "message";
+        Integer id = typeIds.get(name);
+        if (id == null) {
+            id = typeNames.length;
+            // Published before the id, so a reader that finds the id finds the name
+            String[] names = Arrays.copyOf(typeNames, id + 1);
+            names[id] = name;
+            typeNames = names;
+            typeIds.put(name, id);
+        }
+        return id;
+    }
+
+    private Segment newSegment(List<Segment> segments, String kind, int capacity) throws IOException {
+        if (directory == null) {
+            directory = Files.createTempDirectory(parent, "sse-viewer-");
+        }
+        Path path = directory.resolve(kind + "-" + nextFile++ + ".seg");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            Segment segment = new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), capacity,
+                segments.size());
+            segments.add(segment);
+            diskBytes += capacity;
+            return segment;
+        }
+    }
+
+    private static Segment[] segments(List<Segment> segments, int first) {
+        return segments.subList(Math.min(first, segments.size()), segments.size()).toArray(new Segment[0]);
+    }
+
+    private void releaseSegments(Segment[] used, List<Segment> segments) {
+        for (Segment segment : used) {
+            if (--segment.spans == 0 && !segment.deleted) {
+                releaseUnused(segments, segment.slot);
+            }
+        }
+    }
+
+    // The last segment keeps receiving appends, so it stays until append rolls over
+    private void releaseUnused(List<Segment> segments, int slot) {
+        if (slot < 0 || slot >= segments.size() - 1) {
+            return;
+        }
+        Segment segment = segments.get(slot);
+        if (segment != null && segment.spans == 0 && !segment.deleted) {
+            segment.delete();
+            diskBytes -= segment.capacity;
+            // Spans address segments by position, so leave a gap rather than
+            // keeping the mapping, and with it the file's blocks, alive
+            segments.set(slot, null);
+        }
+    }
+
+    private static class Segment {
+        final Path path;
+        final MappedByteBuffer buffer;
+        final int capacity;
+        // Position in the store's segment list
+        final int slot;
+        int used;
+        int spans;
+        boolean deleted;
+
+        Segment(Path path, MappedByteBuffer buffer, int capacity, int slot) {
+            this.path = path;
+            this.buffer = buffer;
+            this.capacity = capacity;
+            this.slot = slot;
+        }
+
+        void delete() {
+            deleted = true;
+            try {
+                // Existing mappings stay readable until the buffer is collected
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                path.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * The events of one {@link #append} call. Holds its own references to
+     * the mapped segments, so reads don't need the store's lock.
+     */
+    static class Span {
+        private final SSESegmentStore store;
+        private final long firstRecord;
+        private final int size;
+        private final Segment[] dataSegments;
+        private final int firstDataSegment;
+        private final Segment[] indexSegments;
+        private final int firstIndexSegment;
+        private boolean released;
+
+        Span(SSESegmentStore store, long firstRecord, int size, Segment[] dataSegments, int firstDataSegment,
+             Segment[] indexSegments, int firstIndexSegment) {
+            this.store = store;
+            this.firstRecord = firstRecord;
+            this.size = size;
+            this.dataSegments = dataSegments;
+            this.firstDataSegment = firstDataSegment;
+            this.indexSegments = indexSegments;
+            this.firstIndexSegment = firstIndexSegment;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int eventLength(int row) {
+            return field(row, 8);
+        }
+
+        int dataLength(int row) {
+            return field(row, 12);
+        }
+
+        int typeId(int row) {
+            return field(row, 16) >>> 8;
+        }
+
+        int format(int row) {
+            return field(row, 16) & 0xff & ~NO_TYPE;
+        }
+
+        boolean hasType(int row) {
+            return (field(row, 16) & NO_TYPE) == 0;
+        }
+
+        int idHash(int row) {
+            return field(row, 20);
+        }
+
+        /** Id column value as in a heap index, with slice offsets relative to the block. */
+        long id(int row) {
+            long record = firstRecord + row;
+            return records(record).getLong(recordPosition(record) + 24);
+        }
+
+        /** Offset of single-line data in the block, or -1. */
+        int dataStart(int row) {
+            return field(row, 32);
+        }
+
+        String typeName(int id) {
+            return store.typeName(id);
+        }
+
+        /** Dictionary id of an event type, or -1 when no stored event has it. */
+        int typeIdOf(String type) {
+            return store.typeIdOf(type);
+        }
+
+        /** Copies the raw event block of {@code row} into {@code buffer}, which must be large enough. */
+        void copyEvent(int row, byte[] buffer) {
+            MappedByteBuffer data = dataSegments[field(row, 0) - firstDataSegment].buffer;
+            data.get(field(row, 4), buffer, 0, eventLength(row));
+        }
+
+        /** Copies {@code length} bytes from {@code offset} in the event block of {@code row}. */
+        void copyEvent(int row, int offset, byte[] buffer, int length) {
+            MappedByteBuffer data = dataSegments[field(row, 0) - firstDataSegment].buffer;
+            data.get(field(row, 4) + offset, buffer, 0, length);
+        }
+
+        private int field(int row, int offset) {
+            long record = firstRecord + row;
+            return records(record).getInt(recordPosition(record) + offset);
+        }
+
+        private MappedByteBuffer records(long record) {
+            return indexSegments[(int) (record / RECORDS_PER_SEGMENT) - firstIndexSegment].buffer;
+        }
+
+        private static int recordPosition(long record) {
+            return (int) (record % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregate statistics over many event-stream responses: event types,
+ * payload sizes, events per response, retry values and data formats. Not
+ * thread-safe; each worker fills its own instance and the instances are
+ * combined with {@link #merge}.
+ */
+public class SSEStatistics {
+
+    private static final FormatType[] FORMATS = FormatType.values();
+    // Log2 buckets: 0 holds zero, bucket k holds [2^(k-1), 2^k)
+    private static final int SIZE_BUCKETS = 33;
+    private static final int BAR_WIDTH = 40;
+    private static final int TOP_TYPES = 20;
+
+    private final FormatDetector formatDetector = new FormatDetector();
+    private long responses;
+    private long emptyResponses;
+    private long skippedResponses;
+    private long events;
+    private long bodyBytes;
+    private long dataBytes;
+    private long maxDataLength;
+    private long maxEvents;
+    private final Map<String, long[]> typeCounts = new HashMap<>();
+    private final long[] formatCounts = new long[FORMATS.length];
+    private final long[] dataSizes = new long[SIZE_BUCKETS];
+    private final long[] eventsPerResponse = new long[SIZE_BUCKETS];
+    private final Map<Long, long[]> retryCounts = new TreeMap<>();
+    // Event count when the current response started
+    private long responseStart;
+
+    /** Parses one response body and adds its events. */
+    public void add(byte[] body) {
+        SSEStreamParser parser = startResponse();
+        parser.feed(body);
+        endResponse(parser);
+    }
+
+    /**
+     * Starts a response whose body is fed in pieces, e.g. from a mapped file
+     * or a pipe, to the returned parser; {@link #endResponse} counts it.
+     */
+    public SSEStreamParser startResponse() {
+        responseStart = events;
+        return new SSEStreamParser(this::addEvent);
+    }
+
+    /** Flushes the parser of the current response and adds the response. */
+    public void endResponse(SSEStreamParser parser) {
+        parser.flush();
+        long count = events - responseStart;
+        responses++;
+        bodyBytes += parser.position();
+        if (count == 0) {
+            emptyResponses++;
+        }
+        eventsPerResponse[bucket(count)]++;
+        maxEvents = Math.max(maxEvents, count);
+    }
+
+    /** Counts a response that was looked at but is not an event stream. */
+    public void skip() {
+        skippedResponses++;
+    }
+
+    private void addEvent(SSEStreamParser parser) {
+        events++;
+        String type = parser.eventType();
+        typeCounts.computeIfAbsent(type != null ? type : "message", k -> new long[1])[0]++;
+        int length = parser.dataLength();
+        dataBytes += length;
+        maxDataLength = Math.max(maxDataLength, length);
+        dataSizes[bucket(length)]++;
+        formatCounts[formatDetector.detectFormat(parser.dataBytes(), 0, length).ordinal()]++;
+        if (parser.retry() >= 0) {
+            retryCounts.computeIfAbsent(parser.retry(), k -> new long[1])[0]++;
+        }
+    }
+
+    /** Adds the counts of {@code other} to this instance. */
+    public SSEStatistics merge(SSEStatistics other) {
+        responses += other.responses;
+        emptyResponses += other.emptyResponses;
+        skippedResponses += other.skippedResponses;
+        events += other.events;
+        bodyBytes += other.bodyBytes;
+        dataBytes += other.dataBytes;
+        maxDataLength = Math.max(maxDataLength, other.maxDataLength);
+        maxEvents = Math.max(maxEvents, other.maxEvents);
+        for (Map.Entry<String, long[]> entry : other.typeCounts.entrySet()) {
+            typeCounts.computeIfAbsent(entry.getKey(), k -> new long[1])[0] += entry.getValue()[0];
+        }
+        for (Map.Entry<Long, long[]> entry : other.retryCounts.entrySet()) {
+            retryCounts.computeIfAbsent(entry.getKey(), k -> new long[1])[0] += entry.getValue()[0];
+        }
+        for (int i = 0; i < FORMATS.length; i++) {
+            formatCounts[i] += other.formatCounts[i];
+        }
+        for (int i = 0; i < SIZE_BUCKETS; i++) {
+            dataSizes[i] += other.dataSizes[i];
+            eventsPerResponse[i] += other.eventsPerResponse[i];
+        }
+        return this;
+    }
+
+    public long responses() {
+        return responses;
+    }
+
+    public long events() {
+        return events;
+    }
+
+    /** The statistics as a plain-text report with bar charts. */
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("Responses: %d event streams (%d without events), %d others skipped%n",
+            responses, emptyResponses, skippedResponses));
+        out.append(String.format("Events: %d, %s of data in %s of bodies%n", events, formatBytes(dataBytes),
+            formatBytes(bodyBytes)));
+        if (responses > 0) {
+            out.append(String.format("Events per response: %.1f average, %d max%n",
+                (double) events / responses, maxEvents));
+        }
+        if (events > 0) {
+            out.append(String.format("Payload size: %s average, %s max%n", formatBytes(dataBytes / events),
+                formatBytes(maxDataLength)));
+        }
+
+        List<Map.Entry<String, long[]>> types = new ArrayList<>(typeCounts.entrySet());
+        types.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        List<String> labels = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        for (int i = 0; i < Math.min(TOP_TYPES, types.size()); i++) {
+            labels.add(types.get(i).getKey());
+            counts.add(types.get(i).getValue()[0]);
+        }
+        if (types.size() > TOP_TYPES) {
+            long other = 0;
+            for (int i = TOP_TYPES; i < types.size(); i++) {
+                other += types.get(i).getValue()[0];
+            }
+            labels.add("(" + (types.size() - TOP_TYPES) + " other types)");
+            counts.add(other);
+        }
+        appendChart(out, "Event types", labels, counts);
+
+        labels.clear();
+        counts.clear();
+        for (FormatType format : FORMATS) {
+            labels.add(format.getDisplayName());
+            counts.add(formatCounts[format.ordinal()]);
+        }
+        appendChart(out, "Data formats", labels, counts);
+
+        appendHistogram(out, "Payload sizes", dataSizes, true);
+        appendHistogram(out, "Events per response", eventsPerResponse, false);
+
+        labels.clear();
+        counts.clear();
+        for (Map.Entry<Long, long[]> entry : retryCounts.entrySet()) {
+            labels.add(entry.getKey() + " ms");
+            counts.add(entry.getValue()[0]);
+        }
+        appendChart(out, "Retry values", labels, counts);
+        return out.toString();
+    }
+
+    private static void appendHistogram(StringBuilder out, String title, long[] buckets, boolean bytes) {
+        int first = 0;
+        int last = buckets.length - 1;
+        while (first <= last && buckets[first] == 0) {
+            first++;
+        }
+        while (last >= first && buckets[last] == 0) {
+            last--;
+        }
+        List<String> labels = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        for (int i = first; i <= last; i++) {
+            long low = i == 0 ? 0 : 1L << (i - 1);
+            long high = i == 0 ? 0 : (1L << i) - 1;
+            labels.add(low == high ? format(low, bytes) : format(low, bytes) + " \u2013 " + format(high, bytes));
+            counts.add(buckets[i]);
+        }
+        appendChart(out, title, labels, counts);
+    }
+
+    private static void appendChart(StringBuilder out, String title, List<String> labels, List<Long> counts) {
+        out.append('\n').append(title).append(":\n");
+        if (labels.isEmpty()) {
+            out.append("  (none)\n");
+            return;
+        }
+        long max = 1;
+        long total = 0;
+        int labelWidth = 0;
+        for (int i = 0; i < labels.size(); i++) {
+            max = Math.max(max, counts.get(i));
+            total += counts.get(i);
+            labelWidth = Math.max(labelWidth, labels.get(i).length());
+        }
+        for (int i = 0; i < labels.size(); i++) {
+            long count = counts.get(i);
+            int bar = (int) Math.round((double) count * BAR_WIDTH / max);
+            out.append(String.format("  %-" + labelWidth + "s %10d %5.1f%% %s%n", labels.get(i), count,
+                total > 0 ? 100.0 * count / total : 0.0, "\u2588".repeat(bar)));
+        }
+    }
+
+    private static String format(long value, boolean bytes) {
+        return bytes ? formatBytes(value) : String.valueOf(value);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    private static int bucket(long value) {
+        return value == 0 ? 0 : 64 - Long.numberOfLeadingZeros(value);
+    }
+}
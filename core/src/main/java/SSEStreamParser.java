@@ -0,0 +1,462 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Incremental SSE parser. Bytes are pushed in arbitrary chunks with
+ * {@link #feed(byte[], int, int)}; partial lines and partial events are kept
+ * across calls so every byte is scanned exactly once. Call {@link #flush()}
+ * at end of stream to emit whatever is still pending.
+ */
+public class SSEStreamParser {
+
+    /**
+     * Receives each dispatched event. The parser's accessors describe the
+     * event only for the duration of the call.
+     */
+    public interface EventHandler {
+        void onEvent(SSEStreamParser parser);
+    }
+
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final byte[] DATA = {'d', 'a', 't', 'a'};
+    private static final byte[] EVENT = {'e', 'v', 'e', 'n', 't'};
+    private static final byte[] ID = {'i', 'd'};
+    private static final byte[] RETRY = {'r', 'e', 't', 'r', 'y'};
+    // Bytes copied out of buffers without an array per feed call
+    private static final int BUFFER_CHUNK_SIZE = 64 * 1024;
+
+    private final EventHandler handler;
+    private List<SSEEvent> pending = new ArrayList<>();
+    // Lazily created for feeding direct and mapped buffers
+    private byte[] chunk;
+
+    // Stream position of the first byte of the next chunk
+    private long position;
+    private int bomMatched;
+    private boolean bomDone;
+    // Previous chunk ended in CR; the carried line is processed once the next
+    // byte shows whether an LF belongs to that terminator
+    private boolean pendingCR;
+
+    // Partial line carried over from the previous chunk
+    private byte[] lineBuffer = new byte[256];
+    private int lineLength;
+    private long lineStartOffset;
+    private long lineEndOffset;
+
+    // Fields of the event currently being parsed
+    private long eventStart = -1;
+    private long eventEnd;
+    private final FieldBuffer type = new FieldBuffer(32);
+    private final FieldBuffer id = new FieldBuffer(32);
+    private final FieldBuffer data = new FieldBuffer(1024);
+    private int dataLines;
+    private long retry = -1;
+    // Stream offsets of the last data and id values
+    private long dataOffset = -1;
+    private long idOffset = -1;
+
+    /**
+     * Creates a parser whose {@code feed} and {@code flush} calls return the
+     * events they completed.
+     */
+    public SSEStreamParser() {
+        this.handler = null;
+    }
+
+    /**
+     * Creates a parser that pushes every event to {@code handler} instead of
+     * materializing {@link SSEEvent} objects; {@code feed} and {@code flush}
+     * then return empty lists.
+     */
+    public SSEStreamParser(EventHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Creates a parser for the part of a stream that starts at stream offset
+     * {@code position}, just past the blank line closing an event, where a
+     * parser of the whole stream is in its initial state. Offsets reported
+     * to {@code handler} are stream offsets and no byte order mark is
+     * skipped. A null handler selects the list-returning mode.
+     */
+    public SSEStreamParser(EventHandler handler, long position) {
+        this.handler = handler;
+        this.position = position;
+        this.bomDone = true;
+    }
+
+    public List<SSEEvent> feed(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        int pos = offset;
+        long base = position - offset;
+
+        // Skip UTF-8 byte order mark at stream start
+        while (!bomDone && pos < end) {
+            if (bytes[pos] == BOM[bomMatched]) {
+                pos++;
+                bomDone = ++bomMatched == BOM.length;
+            } else {
+                bomDone = true;
+                // Not a BOM after all; the matched bytes are line content
+                lineStartOffset = 0;
+                appendLine(BOM, 0, bomMatched);
+            }
+        }
+
+        if (pendingCR && pos < end) {
+            pendingCR = false;
+            if (bytes[pos] == '\n') {
+                pos++;
+            }
+            lineEndOffset = base + pos;
+            processLine(lineBuffer, 0, lineLength, lineStartOffset);
+            lineLength = 0;
+        }
+
+        int lineStart = pos;
+        while (pos < end) {
+            byte b = bytes[pos];
+            if (b != '\n' && b != '\r') {
+                pos++;
+                continue;
+            }
+
+            // CRLF counts as a single line terminator
+            int next = pos + 1;
+            if (b == '\r') {
+                if (next == end) {
+                    break;
+                }
+                if (bytes[next] == '\n') {
+                    next++;
+                }
+            }
+            lineEndOffset = base + next;
+
+            if (lineLength > 0) {
+                appendLine(bytes, lineStart, pos);
+                processLine(lineBuffer, 0, lineLength, lineStartOffset);
+                lineLength = 0;
+            } else {
+                processLine(bytes, lineStart, pos, base + lineStart);
+            }
+
+            pos = next;
+            lineStart = pos;
+        }
+
+        // Carry the unterminated tail into the next chunk
+        if (lineStart < end) {
+            if (lineLength == 0) {
+                lineStartOffset = base + lineStart;
+            }
+            if (pos < end) {
+                // Line ending in the chunk's last byte, a CR
+                appendLine(bytes, lineStart, pos);
+                pendingCR = true;
+            } else {
+                appendLine(bytes, lineStart, end);
+            }
+        }
+
+        position += length;
+        return drain();
+    }
+
+    public List<SSEEvent> feed(byte[] bytes) {
+        return feed(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Feeds the remaining bytes of {@code buffer} and advances its position
+     * to its limit. Buffers without an accessible array, such as mapped
+     * files, are copied through a small reused chunk; the parser keeps no
+     * reference to either.
+     */
+    public List<SSEEvent> feed(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            int length = buffer.remaining();
+            List<SSEEvent> events = feed(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+            buffer.position(buffer.limit());
+            return events;
+        }
+        if (chunk == null) {
+            chunk = new byte[BUFFER_CHUNK_SIZE];
+        }
+        List<SSEEvent> events = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            int length = Math.min(chunk.length, buffer.remaining());
+            buffer.get(chunk, 0, length);
+            events.addAll(feed(chunk, 0, length));
+        }
+        return events;
+    }
+
+    /**
+     * Signals end of stream. A trailing unterminated line is processed and the
+     * last event is dispatched even without a closing blank line, since
+     * captured streams are often cut off mid-event.
+     */
+    public List<SSEEvent> flush() {
+        lineEndOffset = position;
+        if (lineLength > 0 || pendingCR) {
+            processLine(lineBuffer, 0, lineLength, lineStartOffset);
+            lineLength = 0;
+        }
+        dispatch();
+        pendingCR = false;
+        return drain();
+    }
+
+    /** Total number of bytes fed so far. */
+    public long position() {
+        return position;
+    }
+
+    // Accessors for the event being dispatched to an EventHandler
+
+    /** Stream offset of the first line of the event, comments included. */
+    public long eventStart() {
+        return eventStart;
+    }
+
+    /** Stream offset just past the blank line (or end of stream) closing the event. */
+    public long eventEnd() {
+        return eventEnd;
+    }
+
+    public String eventType() {
+        return type.present ? type.decode() : null;
+    }
+
+    public String id() {
+        return id.present ? id.decode() : null;
+    }
+
+    /** Retry value in milliseconds, or -1 when the event has none. */
+    public long retry() {
+        return retry;
+    }
+
+    public String data() {
+        return data.decode();
+    }
+
+    /** Raw UTF-8 data bytes; valid up to {@link #dataLength()}. Do not modify. */
+    public byte[] dataBytes() {
+        return data.bytes;
+    }
+
+    public int dataLength() {
+        return data.length;
+    }
+
+    /**
+     * Stream offset of the data when it comes from a single data line, so the
+     * stream holds it as one slice; -1 when it is joined from several lines.
+     */
+    public long dataOffset() {
+        return dataLines == 1 ? dataOffset : -1;
+    }
+
+    /** Raw UTF-8 event type bytes; valid up to {@link #eventTypeLength()}. Do not modify. */
+    public byte[] eventTypeBytes() {
+        return type.bytes;
+    }
+
+    /** Length of the raw event type, or -1 when the event has none. */
+    public int eventTypeLength() {
+        return type.present ? type.length : -1;
+    }
+
+    /** Raw UTF-8 id bytes; valid up to {@link #idLength()}. Do not modify. */
+    public byte[] idBytes() {
+        return id.bytes;
+    }
+
+    /** Length of the raw id, or -1 when the event has none. */
+    public int idLength() {
+        return id.present ? id.length : -1;
+    }
+
+    /** Stream offset of the raw id, or -1 when the event has none. */
+    public long idOffset() {
+        return id.present ? idOffset : -1;
+    }
+
+    private List<SSEEvent> drain() {
+        if (pending.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<SSEEvent> events = pending;
+        pending = new ArrayList<>();
+        return events;
+    }
+
+    private void appendLine(byte[] bytes, int start, int end) {
+        int length = end - start;
+        if (lineLength + length > lineBuffer.length) {
+            lineBuffer = Arrays.copyOf(lineBuffer, Math.max(lineLength + length, lineBuffer.length * 2));
+        }
+        System.arraycopy(bytes, start, lineBuffer, lineLength, length);
+        lineLength += length;
+    }
+
+    private void processLine(byte[] line, int start, int end, long lineOffset) {
+        if (start == end) {
+            // Blank line terminates the event
+            dispatch();
+            return;
+        }
+
+        if (eventStart < 0) {
+            eventStart = lineOffset;
+        }
+
+        if (line[start] == ':') {
+            // Comment line - ignore
+            return;
+        }
+
+        int colon = start;
+        while (colon < end && line[colon] != ':') {
+            colon++;
+        }
+
+        int valueStart = colon < end ? colon + 1 : end;
+        if (valueStart < end && line[valueStart] == ' ') {
+            valueStart++;
+        }
+        int fieldLength = colon - start;
+
+        if (fieldMatches(line, start, fieldLength, DATA)) {
+            // Multiple data lines are joined with LF
+            if (dataLines++ > 0) {
+                data.append((byte) '\n');
+            }
+            data.append(line, valueStart, end);
+            dataOffset = lineOffset + valueStart - start;
+        } else if (fieldMatches(line, start, fieldLength, EVENT)) {
+            type.set(line, valueStart, end);
+        } else if (fieldMatches(line, start, fieldLength, ID)) {
+            // Spec: ids containing NULL are ignored
+            if (indexOf(line, valueStart, end, (byte) 0) < 0) {
+                id.set(line, valueStart, end);
+                idOffset = lineOffset + valueStart - start;
+            }
+        } else if (fieldMatches(line, start, fieldLength, RETRY)) {
+            long value = parseDigits(line, valueStart, end);
+            if (value >= 0) {
+                retry = value;
+            }
+        }
+        // Unknown fields are ignored
+    }
+
+    private void dispatch() {
+        // Only consider it a valid event if it has data
+        if (dataLines > 0) {
+            eventEnd = lineEndOffset;
+            if (handler != null) {
+                handler.onEvent(this);
+            } else {
+                pending.add(toEvent());
+            }
+        }
+
+        eventStart = -1;
+        type.clear();
+        id.clear();
+        data.clear();
+        dataLines = 0;
+        retry = -1;
+        dataOffset = -1;
+        idOffset = -1;
+    }
+
+    private SSEEvent toEvent() {
+        SSEEvent event = new SSEEvent();
+        event.event = eventType();
+        event.id = id();
+        event.retry = retry >= 0 ? retry : null;
+        event.data = data();
+        return event;
+    }
+
+    private static boolean fieldMatches(byte[] line, int start, int length, byte[] name) {
+        return length == name.length && Arrays.equals(line, start, start + length, name, 0, name.length);
+    }
+
+    private static int indexOf(byte[] line, int start, int end, byte value) {
+        for (int i = start; i < end; i++) {
+            if (line[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long parseDigits(byte[] line, int start, int end) {
+        if (start == end) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                // Ignore invalid retry values
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // Reusable byte buffer for one field value
+    private static class FieldBuffer {
+        byte[] bytes;
+        int length;
+        boolean present;
+
+        FieldBuffer(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void set(byte[] source, int start, int end) {
+            length = 0;
+            append(source, start, end);
+        }
+
+        void append(byte[] source, int start, int end) {
+            int count = end - start;
+            ensureCapacity(length + count);
+            System.arraycopy(source, start, bytes, length, count);
+            length += count;
+            present = true;
+        }
+
+        void append(byte b) {
+            ensureCapacity(length + 1);
+            bytes[length++] = b;
+        }
+
+        void clear() {
+            length = 0;
+            present = false;
+        }
+
+        String decode() {
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+            }
+        }
+    }
+}
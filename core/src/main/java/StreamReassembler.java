@@ -0,0 +1,316 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rebuilds the output of an LLM token stream from its delta events: the
+ * message text, tool-call arguments and token usage. Recognises OpenAI chat
+ * completions, the OpenAI Responses API and Anthropic messages, or takes the
+ * text from a user-supplied JSON path. Events are consumed once, in order,
+ * so a growing index can be fed again and only the new rows are processed.
+ */
+public class StreamReassembler {
+
+    // Rows between interruption checks
+    private static final int CHECK_INTERVAL = 1024;
+
+    private static final JsonPath TYPE = JsonPath.compile("type");
+    private static final JsonPath INDEX = JsonPath.compile("index");
+    private static final JsonPath OUTPUT_INDEX = JsonPath.compile("output_index");
+    private static final JsonPath NAME = JsonPath.compile("name");
+    private static final JsonPath ID = JsonPath.compile("id");
+    private static final JsonPath CALL_ID = JsonPath.compile("call_id");
+    private static final JsonPath DELTA = JsonPath.compile("delta");
+    private static final JsonPath USAGE = JsonPath.compile("usage");
+
+    // OpenAI chat completions
+    private static final JsonPath CHOICE_DELTA = JsonPath.compile("choices[0].delta");
+    private static final JsonPath CHOICE_TEXT = JsonPath.compile("choices[0].text");
+    private static final JsonPath CONTENT = JsonPath.compile("content");
+    private static final JsonPath TOOL_CALLS = JsonPath.compile("tool_calls");
+    private static final JsonPath FUNCTION_NAME = JsonPath.compile("function.name");
+    private static final JsonPath FUNCTION_ARGUMENTS = JsonPath.compile("function.arguments");
+    private static final JsonPath[] ELEMENTS = new JsonPath[8];
+
+    // Anthropic messages
+    private static final JsonPath CONTENT_BLOCK = JsonPath.compile("content_block");
+    private static final JsonPath DELTA_TYPE = JsonPath.compile("delta.type");
+    private static final JsonPath DELTA_TEXT = JsonPath.compile("delta.text");
+    private static final JsonPath DELTA_PARTIAL_JSON = JsonPath.compile("delta.partial_json");
+    private static final JsonPath MESSAGE_USAGE = JsonPath.compile("message.usage");
+
+    // OpenAI Responses API
+    private static final JsonPath ITEM = JsonPath.compile("item");
+    private static final JsonPath RESPONSE_USAGE = JsonPath.compile("response.usage");
+
+    private static final String[] USAGE_KEYS = {
+        "input_tokens", "output_tokens", "prompt_tokens", "completion_tokens", "total_tokens",
+        "cache_creation_input_tokens", "cache_read_input_tokens"
+    };
+    private static final JsonPath[] USAGE_PATHS = new JsonPath[USAGE_KEYS.length];
+    static {
+        for (int i = 0; i < USAGE_KEYS.length; i++) {
+            USAGE_PATHS[i] = JsonPath.compile(USAGE_KEYS[i]);
+        }
+        for (int i = 0; i < ELEMENTS.length; i++) {
+            ELEMENTS[i] = JsonPath.compile("[" + i + "]");
+        }
+    }
+
+    private final JsonPath textPath;
+    private final FormatDetector formatDetector = new FormatDetector();
+    private final StringBuilder message = new StringBuilder();
+    private final Map<Integer, ToolCall> toolCalls = new TreeMap<>();
+    private final Map<String, Long> usage = new LinkedHashMap<>();
+    private String schema;
+    private int processedRows;
+    private int recognisedEvents;
+
+    /** @param textPath path of the text fragment in each event, or null to detect the schema */
+    public StreamReassembler(JsonPath textPath) {
+        this.textPath = textPath;
+    }
+
+    /**
+     * Consumes the rows of {@code index} not seen yet. Returns false when
+     * interrupted; the remaining rows are picked up by the next call.
+     */
+    public synchronized boolean update(SSEEventIndex index) {
+        while (processedRows < index.size()) {
+            if (processedRows % CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            // Deltas are JSON; skip "[DONE]" markers and the like without decoding
+            if (index.format(processedRows) == FormatType.JSON && accept(index.data(processedRows))) {
+                recognisedEvents++;
+            }
+            processedRows++;
+        }
+        return true;
+    }
+
+    /**
+     * Consumes one event straight from a parser, for streams that are read
+     * once and not indexed. Usable as the parser's event handler.
+     */
+    public synchronized void add(SSEStreamParser parser) {
+        if (formatDetector.detectFormat(parser.dataBytes(), 0, parser.dataLength()) == FormatType.JSON &&
+            accept(parser.data())) {
+            recognisedEvents++;
+        }
+        processedRows++;
+    }
+
+    public synchronized int processedRows() {
+        return processedRows;
+    }
+
+    public synchronized int messageLength() {
+        return message.length();
+    }
+
+    /** Message text from {@code start} on, for appending to an existing view. */
+    public synchronized String messageFrom(int start) {
+        return message.substring(Math.min(start, message.length()));
+    }
+
+    /** Detected schema, tool calls and usage as display text. */
+    public synchronized String summary() {
+        StringBuilder out = new StringBuilder();
+        if (schema == null) {
+            out.append("No token deltas recognised in ").append(processedRows).append(" events.\n");
+            out.append("Set a text path to reassemble other formats.\n");
+            return out.toString();
+        }
+        out.append("Format: ").append(schema).append(" (").append(recognisedEvents).append(" of ")
+            .append(processedRows).append(" events)\n");
+        if (!toolCalls.isEmpty()) {
+            out.append("\nTool calls:\n");
+            for (Map.Entry<Integer, ToolCall> entry : toolCalls.entrySet()) {
+                ToolCall call = entry.getValue();
+                out.append("  [").append(entry.getKey()).append("] ")
+                    .append(call.name != null ? call.name : "(unnamed)");
+                if (call.id != null) {
+                    out.append("  id=").append(call.id);
+                }
+                out.append('\n').append("      ").append(call.arguments).append('\n');
+            }
+        }
+        if (!usage.isEmpty()) {
+            out.append("\nUsage:\n");
+            for (Map.Entry<String, Long> entry : usage.entrySet()) {
+                out.append("  ").append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    // Returns true when the event belongs to a recognised schema
+    private boolean accept(String data) {
+        boolean recognised = false;
+        if (textPath != null) {
+            String text = textPath.evaluate(data);
+            if (text != null) {
+                message.append(text);
+                schema = "Custom path " + textPath;
+                recognised = true;
+            }
+        }
+        String type = TYPE.evaluate(data);
+        return (type != null ? acceptTyped(type, data) : acceptChat(data)) || recognised;
+    }
+
+    // Anthropic messages and OpenAI Responses events carry their type in the data
+    private boolean acceptTyped(String type, String data) {
+        switch (type) {
+            case "content_block_start": {
+                String block = CONTENT_BLOCK.evaluate(data);
+                if (block != null && "tool_use".equals(TYPE.evaluate(block))) {
+                    ToolCall call = toolCall(INDEX.evaluate(data));
+                    call.name = NAME.evaluate(block);
+                    call.id = ID.evaluate(block);
+                }
+                return detected("Anthropic messages");
+            }
+            case "content_block_delta": {
+                String deltaType = DELTA_TYPE.evaluate(data);
+                if ("text_delta".equals(deltaType)) {
+                    appendText(DELTA_TEXT.evaluate(data));
+                } else if ("input_json_delta".equals(deltaType)) {
+                    appendArguments(toolCall(INDEX.evaluate(data)), DELTA_PARTIAL_JSON.evaluate(data));
+                }
+                return detected("Anthropic messages");
+            }
+            case "message_start":
+                readUsage(MESSAGE_USAGE.evaluate(data));
+                return detected("Anthropic messages");
+            case "message_delta":
+                readUsage(USAGE.evaluate(data));
+                return detected("Anthropic messages");
+            case "content_block_stop":
+            case "message_stop":
+            case "ping":
+                return detected("Anthropic messages");
+            case "response.output_text.delta":
+                appendText(DELTA.evaluate(data));
+                return detected("OpenAI responses");
+            case "response.output_item.added": {
+                String item = ITEM.evaluate(data);
+                if (item != null && "function_call".equals(TYPE.evaluate(item))) {
+                    ToolCall call = toolCall(OUTPUT_INDEX.evaluate(data));
+                    call.name = NAME.evaluate(item);
+                    call.id = CALL_ID.evaluate(item);
+                }
+                return detected("OpenAI responses");
+            }
+            case "response.function_call_arguments.delta":
+                appendArguments(toolCall(OUTPUT_INDEX.evaluate(data)), DELTA.evaluate(data));
+                return detected("OpenAI responses");
+            case "response.completed":
+                readUsage(RESPONSE_USAGE.evaluate(data));
+                return detected("OpenAI responses");
+            default:
+                return type.startsWith("response.") && detected("OpenAI responses");
+        }
+    }
+
+    private boolean acceptChat(String data) {
+        String delta = CHOICE_DELTA.evaluate(data);
+        boolean recognised = false;
+        if (delta != null) {
+            appendText(CONTENT.evaluate(delta));
+            String calls = TOOL_CALLS.evaluate(delta);
+            if (calls != null) {
+                // Each element names the call it continues by index
+                for (int k = 0; ; k++) {
+                    JsonPath elementPath = k < ELEMENTS.length ? ELEMENTS[k] : JsonPath.compile("[" + k + "]");
+                    String element = elementPath.evaluate(calls);
+                    if (element == null) {
+                        break;
+                    }
+                    String index = INDEX.evaluate(element);
+                    ToolCall call = toolCall(index != null ? index : String.valueOf(k));
+                    String id = ID.evaluate(element);
+                    String name = FUNCTION_NAME.evaluate(element);
+                    if (id != null) {
+                        call.id = id;
+                    }
+                    if (name != null) {
+                        call.name = name;
+                    }
+                    appendArguments(call, FUNCTION_ARGUMENTS.evaluate(element));
+                }
+            }
+            recognised = detected("OpenAI chat completions");
+        } else {
+            String text = CHOICE_TEXT.evaluate(data);
+            if (text != null) {
+                appendText(text);
+                recognised = detected("OpenAI completions");
+            }
+        }
+        String usageObject = USAGE.evaluate(data);
+        if (usageObject != null && readUsage(usageObject)) {
+            recognised = detected("OpenAI chat completions");
+        }
+        return recognised;
+    }
+
+    private boolean detected(String name) {
+        if (textPath == null) {
+            schema = name;
+        } else if (schema == null) {
+            schema = "Custom path " + textPath;
+        }
+        return true;
+    }
+
+    private void appendText(String text) {
+        // A custom text path replaces the built-in text fields
+        if (text != null && textPath == null) {
+            message.append(text);
+        }
+    }
+
+    private static void appendArguments(ToolCall call, String fragment) {
+        if (fragment != null) {
+            call.arguments.append(fragment);
+        }
+    }
+
+    private ToolCall toolCall(String index) {
+        int key;
+        try {
+            key = index != null ? Integer.parseInt(index) : 0;
+        } catch (NumberFormatException e) {
+            key = 0;
+        }
+        return toolCalls.computeIfAbsent(key, k -> new ToolCall());
+    }
+
+    // Streams report running totals, so the latest value of each counter wins
+    private boolean readUsage(String usageObject) {
+        if (usageObject == null || !usageObject.startsWith("{")) {
+            return false;
+        }
+        boolean found = false;
+        for (int i = 0; i < USAGE_KEYS.length; i++) {
+            String value = USAGE_PATHS[i].evaluate(usageObject);
+            if (value != null) {
+                try {
+                    usage.put(USAGE_KEYS[i], Long.parseLong(value));
+                    found = true;
+                } catch (NumberFormatException e) {
+                    // Not a counter
+                }
+            }
+        }
+        return found;
+    }
+
+    private static class ToolCall {
+        String name;
+        String id;
+        final StringBuilder arguments = new StringBuilder();
+    }
+}
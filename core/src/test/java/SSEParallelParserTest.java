@@ -0,0 +1,173 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that range-split parsing yields the same events as one sequential
+ * {@link SSEStreamParser} pass. Ranges are forced down to a few bytes so
+ * that small bodies are cut at every possible position.
+ */
+class SSEParallelParserTest {
+
+    private static final String[] LINE_ENDINGS = {"\n", "\r", "\r\n"};
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void lineEndings() {
+        for (String eol : LINE_ENDINGS) {
+            assertSplitsMatch(body(eol, false,
+                "event: delta", "data: {\"a\":1}", "",
+                "id: 7", "data: one", "data: two", "", "",
+                "retry: 1500", "data: x", ""));
+        }
+    }
+
+    @Test
+    void mixedLineEndings() {
+        assertSplitsMatch(bytes("data: a\r\n\r\ndata: b\r\rdata: c\n\r\ndata: d\r\n\ndata: e\n\n"));
+    }
+
+    @Test
+    void crlfAtRangeCut() {
+        // Every byte is a candidate cut, so some land between CR and LF
+        assertSplitsMatch(bytes("data: a\r\n\r\n\r\n\r\ndata: b\r\n\r\ndata: c\r\r\n\r\n"));
+        byte[] body = bytes("x\r\n\r\n\r\ny\r\n\r\r\n\n\r\n");
+        for (int from = 0; from <= body.length; from++) {
+            int cut = SSEParallelParser.nextBoundary(body, from, body.length);
+            assertTrue(cut >= from && cut <= body.length);
+            assertFalse(cut > 0 && cut < body.length && body[cut - 1] == '\r' && body[cut] == '\n',
+                "cut " + cut + " splits a CRLF");
+        }
+    }
+
+    @Test
+    void leadingBom() {
+        for (String eol : LINE_ENDINGS) {
+            assertSplitsMatch(body(eol, true, "data: first", "", "event: e", "data: second", ""));
+            assertSplitsMatch(body(eol, true, "", "data: after blank", ""));
+        }
+    }
+
+    @Test
+    void trailingEventWithoutBlankLine() {
+        for (String eol : LINE_ENDINGS) {
+            assertSplitsMatch(body(eol, false, "data: a", "", "event: last", "data: b"));
+            assertSplitsMatch(bytes("data: a" + eol + eol + "data: unterminated"));
+            assertSplitsMatch(bytes("data: a" + eol + eol + "data: b" + eol));
+        }
+    }
+
+    @Test
+    void commentBlocksAtBoundaries() {
+        for (String eol : LINE_ENDINGS) {
+            assertSplitsMatch(body(eol, false,
+                ": keep-alive", "", ": ping", ": ping", "",
+                "data: a", ": inside", "data: b", "",
+                ":", "", "data: c", "", ": trailing"));
+        }
+    }
+
+    @Test
+    void randomBodies() {
+        Random random = new Random(42);
+        String[] lines = {"data: ", "data:x", "data: {\"k\":\"v\"}", "event: t", "event:", "id: 1",
+            "id", "retry: 250", "retry: x", ": c", "", "", "", "field: ignored", "data"};
+        for (int n = 0; n < 300; n++) {
+            StringBuilder body = new StringBuilder();
+            int count = 1 + random.nextInt(30);
+            for (int i = 0; i < count; i++) {
+                body.append(lines[random.nextInt(lines.length)]);
+                if (i < count - 1 || random.nextBoolean()) {
+                    body.append(LINE_ENDINGS[random.nextInt(LINE_ENDINGS.length)]);
+                }
+            }
+            byte[] bytes = bytes(body.toString());
+            assertSplitsMatch(random.nextInt(4) == 0 ? withBom(bytes) : bytes);
+        }
+    }
+
+    private static void assertSplitsMatch(byte[] body) {
+        List<SSEEvent> expected = sequential(body, 0, body.length);
+        for (int rangeSize = 1; rangeSize <= body.length; rangeSize++) {
+            List<SSEEvent> events = SSEParallelParser.events(body, 0, body.length, pool, rangeSize);
+            assertEvents(expected, events, body, rangeSize);
+
+            SSEEventIndex index = SSEParallelParser.index(body, pool, rangeSize);
+            List<SSEEvent> decoded = new ArrayList<>();
+            for (int row = 0; row < index.size(); row++) {
+                decoded.add(index.decode(row));
+            }
+            assertEvents(expected, decoded, body, rangeSize);
+        }
+
+        // A slice starting past the BOM, as for a body inside a larger buffer
+        int offset = Math.min(3, body.length);
+        List<SSEEvent> slice = sequential(body, offset, body.length - offset);
+        for (int rangeSize = 1; rangeSize <= body.length - offset; rangeSize++) {
+            assertEvents(slice, SSEParallelParser.events(body, offset, body.length - offset, pool, rangeSize),
+                body, rangeSize);
+        }
+    }
+
+    private static List<SSEEvent> sequential(byte[] body, int offset, int length) {
+        SSEStreamParser parser = new SSEStreamParser();
+        List<SSEEvent> events = new ArrayList<>(parser.feed(body, offset, length));
+        events.addAll(parser.flush());
+        return events;
+    }
+
+    private static void assertEvents(List<SSEEvent> expected, List<SSEEvent> actual, byte[] body, int rangeSize) {
+        String context = "range size " + rangeSize + " of " + escape(body);
+        assertEquals(expected.size(), actual.size(), "event count, " + context);
+        for (int i = 0; i < expected.size(); i++) {
+            SSEEvent want = expected.get(i);
+            SSEEvent got = actual.get(i);
+            assertEquals(want.event, got.event, "type of event " + i + ", " + context);
+            assertEquals(want.data, got.data, "data of event " + i + ", " + context);
+            assertEquals(want.id, got.id, "id of event " + i + ", " + context);
+            assertEquals(want.retry, got.retry, "retry of event " + i + ", " + context);
+        }
+    }
+
+    private static byte[] body(String eol, boolean bom, String... lines) {
+        byte[] bytes = bytes(String.join(eol, lines) + eol);
+        return bom ? withBom(bytes) : bytes;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] withBom(byte[] bytes) {
+        byte[] result = new byte[BOM.length + bytes.length];
+        System.arraycopy(BOM, 0, result, 0, BOM.length);
+        System.arraycopy(bytes, 0, result, BOM.length, bytes.length);
+        return result;
+    }
+
+    private static String escape(byte[] body) {
+        return new String(body, StandardCharsets.UTF_8).replace("\r", "\\r").replace("\n", "\\n");
+    }
+}
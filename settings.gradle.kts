@@ -1 +1,4 @@
-rootProject.name = "sse-viewer"
\ No newline at end of file
+rootProject.name = "sse-viewer"
+
+// Headless parsing and analysis shared by the extension and the CLI
+include("core", "cli")
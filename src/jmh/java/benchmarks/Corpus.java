@@ -0,0 +1,132 @@
+package benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+/**
+ * Generated SSE bodies modelled on the traffic the viewer sees. Generation
+ * is seeded, so every run benchmarks identical input.
+ */
+public enum Corpus {
+    /** 100k tiny JSON events. */
+    SMALL_EVENTS {
+        @Override
+        String generate(Random random) {
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < 100_000; i++) {
+                body.append("event: message\nid: ").append(i)
+                    .append("\ndata: {\"seq\":").append(i).append(",\"ok\":true}\n\n");
+            }
+            return body.toString();
+        }
+    },
+    /** A handful of multi-megabyte events: large JSON documents and base64 blobs. */
+    HUGE_EVENTS {
+        @Override
+        String generate(Random random) {
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < 4; i++) {
+                body.append("event: snapshot\ndata: ").append(largeJson(random, 40_000)).append("\n\n");
+                body.append("event: blob\ndata: ").append(base64(random, 2 * 1024 * 1024)).append("\n\n");
+            }
+            return body.toString();
+        }
+    },
+    /** Events whose JSON payload is nested hundreds of levels deep. */
+    DEEP_JSON {
+        @Override
+        String generate(Random random) {
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < 200; i++) {
+                body.append("data: ");
+                for (int depth = 0; depth < 500; depth++) {
+                    body.append(depth % 2 == 0 ? "{\"n\":" : "[");
+                }
+                body.append(random.nextInt(1000));
+                for (int depth = 499; depth >= 0; depth--) {
+                    body.append(depth % 2 == 0 ? "}" : "]");
+                }
+                body.append("\n\n");
+            }
+            return body.toString();
+        }
+    },
+    /** Multi-line events with CRLF line endings and interleaved comments. */
+    CRLF {
+        @Override
+        String generate(Random random) {
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < 50_000; i++) {
+                if (i % 10 == 0) {
+                    body.append(": keep-alive\r\n\r\n");
+                }
+                body.append("event: update\r\nid: ").append(i).append("\r\n")
+                    .append("data: line one of ").append(i).append("\r\n")
+                    .append("data: line two ").append(random.nextLong()).append("\r\n")
+                    .append("retry: 3000\r\n\r\n");
+            }
+            return body.toString();
+        }
+    },
+    /** OpenAI- and Anthropic-style token streams with one short delta per event. */
+    LLM_TOKENS {
+        @Override
+        String generate(Random random) {
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < 30_000; i++) {
+                body.append("data: {\"id\":\"chatcmpl-9x7\",\"object\":\"chat.completion.chunk\",\"created\":1717000000,")
+                    .append("\"model\":\"gpt-4o\",\"choices\":[{\"index\":0,\"delta\":{\"content\":\"")
+                    .append(word(random)).append(" \"},\"finish_reason\":null}]}\n\n");
+            }
+            body.append("data: [DONE]\n\n");
+            for (int i = 0; i < 30_000; i++) {
+                body.append("event: content_block_delta\ndata: {\"type\":\"content_block_delta\",\"index\":0,")
+                    .append("\"delta\":{\"type\":\"text_delta\",\"text\":\"").append(word(random)).append(" \"}}\n\n");
+                if (i % 500 == 0) {
+                    body.append("event: ping\ndata: {\"type\": \"ping\"}\n\n");
+                }
+            }
+            return body.toString();
+        }
+    };
+
+    abstract String generate(Random random);
+
+    String body() {
+        return generate(new Random(42));
+    }
+
+    byte[] bytes() {
+        return body().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String largeJson(Random random, int entries) {
+        StringBuilder json = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i)
+                .append(",\"name\":\"").append(word(random))
+                .append("\",\"score\":").append(random.nextDouble())
+                .append(",\"active\":").append(random.nextBoolean())
+                .append(",\"tags\":[\"a\",\"b\",null]}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String base64(Random random, int bytes) {
+        byte[] raw = new byte[bytes];
+        random.nextBytes(raw);
+        return Base64.getEncoder().encodeToString(raw);
+    }
+
+    private static final String[] WORDS = {
+        "the", "stream", "token", "server", "event", "delta", "model", "response", "héllo", "数据"
+    };
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Classifies every event payload of a corpus; one operation is the whole corpus. */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FormatDetectorBenchmark {
+
+    @Param({"SMALL_EVENTS", "HUGE_EVENTS", "DEEP_JSON", "CRLF", "LLM_TOKENS"})
+    public Corpus corpus;
+
+    private String[] payloads;
+    private byte[][] payloadBytes;
+
+    @Setup
+    public void setUp() throws Throwable {
+        List<?> events = Targets.parseSSE(corpus.bytes());
+        payloads = new String[events.size()];
+        payloadBytes = new byte[events.size()][];
+        for (int i = 0; i < payloads.length; i++) {
+            payloads[i] = Targets.data(events.get(i));
+            payloadBytes[i] = payloads[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public void detectString(Blackhole blackhole) throws Throwable {
+        for (String payload : payloads) {
+            blackhole.consume(Targets.detectFormat(payload));
+        }
+    }
+
+    @Benchmark
+    public void detectBytes(Blackhole blackhole) throws Throwable {
+        for (byte[] payload : payloadBytes) {
+            blackhole.consume(Targets.detectFormat(payload));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Pretty-printing and the full highlighted detail-pane render of one JSON event. */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JsonRenderBenchmark {
+
+    public enum Payload {
+        /** A single LLM token chunk. */
+        TOKEN_CHUNK,
+        /** A ~2 MB JSON document. */
+        LARGE,
+        /** 500 levels of nesting. */
+        DEEP
+    }
+
+    @Param({"TOKEN_CHUNK", "LARGE", "DEEP"})
+    public Payload payload;
+
+    private String json;
+    private Object event;
+
+    @Setup
+    public void setUp() throws Throwable {
+        Random random = new Random(42);
+        switch (payload) {
+            case TOKEN_CHUNK:
+                json = "{\"id\":\"chatcmpl-9x7\",\"object\":\"chat.completion.chunk\",\"choices\":"
+                    + "[{\"index\":0,\"delta\":{\"content\":\"Hello\"},\"finish_reason\":null}]}";
+                break;
+            case LARGE:
+                json = Corpus.largeJson(random, 25_000);
+                break;
+            default:
+                json = "{\"n\":[".repeat(250) + "1" + "]}".repeat(250);
+        }
+        event = Targets.parseSSE("data: " + json + "\n\n").get(0);
+    }
+
+    @Benchmark
+    public String prettify() throws Throwable {
+        return Targets.prettify(json);
+    }
+
+    @Benchmark
+    public Object highlight() throws Throwable {
+        return Targets.renderJson(event);
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Whole-body parsing: the String wrapper, the byte API, and the offset index
+ * the editor builds, sequentially and split into ranges parsed in parallel.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParserBenchmark {
+
+    @Param({"SMALL_EVENTS", "HUGE_EVENTS", "DEEP_JSON", "CRLF", "LLM_TOKENS"})
+    public Corpus corpus;
+
+    private String body;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        body = corpus.body();
+        bytes = corpus.bytes();
+    }
+
+    @Benchmark
+    public Object parseString() throws Throwable {
+        return Targets.parseSSE(body);
+    }
+
+    @Benchmark
+    public Object parseBytes() throws Throwable {
+        return Targets.parseSSE(bytes);
+    }
+
+    @Benchmark
+    public int buildIndex() throws Throwable {
+        return Targets.index(bytes);
+    }
+
+    @Benchmark
+    public int buildIndexParallel() throws Throwable {
+        return Targets.parallelIndex(bytes);
+    }
+}
@@ -0,0 +1,127 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Handles to the extension classes under test. They live in the unnamed
+ * package, which JMH benchmarks cannot use and named packages cannot import,
+ * so they are bound once by name. Calls through these static final handles
+ * are inlined by the JIT.
+ */
+final class Targets {
+
+    static final Object PARSER;
+    static final Object DETECTOR;
+    static final Object FORMAT_JSON;
+
+    // SSEParser.parseSSE(String) / parseSSE(byte[])
+    static final MethodHandle PARSE_STRING;
+    static final MethodHandle PARSE_BYTES;
+    // SSEEventIndex.Builder(byte[]), new SSEStreamParser(handler), feed, flush, snapshot
+    static final MethodHandle NEW_INDEX_BUILDER;
+    static final MethodHandle NEW_STREAM_PARSER;
+    static final MethodHandle FEED;
+    static final MethodHandle FLUSH;
+    static final MethodHandle SNAPSHOT;
+    static final MethodHandle INDEX_SIZE;
+    // SSEParallelParser.index(byte[], ForkJoinPool)
+    static final MethodHandle PARALLEL_INDEX;
+    // FormatDetector.detectFormat(String) / detectFormat(byte[], int, int)
+    static final MethodHandle DETECT_STRING;
+    static final MethodHandle DETECT_BYTES;
+    // JsonFormatter.prettify(CharSequence)
+    static final MethodHandle PRETTIFY;
+    // EventDetailRenderer.render(SSEEvent, FormatType, int, int)
+    static final MethodHandle RENDER;
+    // SSEEvent field access
+    static final MethodHandle EVENT_DATA;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Class<?> parser = Class.forName("SSEParser");
+            Class<?> streamParser = Class.forName("SSEStreamParser");
+            Class<?> handler = Class.forName("SSEStreamParser$EventHandler");
+            Class<?> index = Class.forName("SSEEventIndex");
+            Class<?> builder = Class.forName("SSEEventIndex$Builder");
+            Class<?> detector = Class.forName("FormatDetector");
+            Class<?> formatType = Class.forName("FormatType");
+            Class<?> formatter = Class.forName("JsonFormatter");
+            Class<?> renderer = Class.forName("EventDetailRenderer");
+            Class<?> detail = Class.forName("EventDetailRenderer$Detail");
+            Class<?> event = Class.forName("SSEEvent");
+
+            PARSER = parser.getConstructor().newInstance();
+            DETECTOR = detector.getConstructor().newInstance();
+            FORMAT_JSON = formatType.getField("JSON").get(null);
+
+            PARSE_STRING = lookup.findVirtual(parser, "parseSSE", MethodType.methodType(List.class, String.class));
+            PARSE_BYTES = lookup.findVirtual(parser, "parseSSE", MethodType.methodType(List.class, byte[].class));
+            NEW_INDEX_BUILDER = lookup.findConstructor(builder, MethodType.methodType(void.class, byte[].class));
+            NEW_STREAM_PARSER = lookup.findConstructor(streamParser, MethodType.methodType(void.class, handler));
+            FEED = lookup.findVirtual(streamParser, "feed", MethodType.methodType(List.class, byte[].class, int.class, int.class));
+            FLUSH = lookup.findVirtual(streamParser, "flush", MethodType.methodType(List.class));
+            SNAPSHOT = lookup.findVirtual(builder, "snapshot", MethodType.methodType(index));
+            INDEX_SIZE = lookup.findVirtual(index, "size", MethodType.methodType(int.class));
+            PARALLEL_INDEX = lookup.findStatic(Class.forName("SSEParallelParser"), "index",
+                MethodType.methodType(index, byte[].class, ForkJoinPool.class));
+            DETECT_STRING = lookup.findVirtual(detector, "detectFormat", MethodType.methodType(formatType, String.class));
+            DETECT_BYTES = lookup.findVirtual(detector, "detectFormat", MethodType.methodType(formatType, byte[].class, int.class, int.class));
+            PRETTIFY = lookup.findStatic(formatter, "prettify", MethodType.methodType(String.class, CharSequence.class));
+            RENDER = lookup.findStatic(renderer, "render", MethodType.methodType(detail, event, formatType, int.class, int.class));
+            EVENT_DATA = lookup.findGetter(event, "data", String.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Targets() {
+    }
+
+    static List<?> parseSSE(String body) throws Throwable {
+        return (List<?>) PARSE_STRING.invoke(PARSER, body);
+    }
+
+    static List<?> parseSSE(byte[] body) throws Throwable {
+        return (List<?>) PARSE_BYTES.invoke(PARSER, body);
+    }
+
+    /** Builds the offset index the editor uses, returning the event count. */
+    static int index(byte[] body) throws Throwable {
+        Object builder = NEW_INDEX_BUILDER.invoke(body);
+        Object parser = NEW_STREAM_PARSER.invoke(builder);
+        FEED.invoke(parser, body, 0, body.length);
+        FLUSH.invoke(parser);
+        return (int) INDEX_SIZE.invoke(SNAPSHOT.invoke(builder));
+    }
+
+    /** Builds the same index in ranges on the common pool, returning the event count. */
+    static int parallelIndex(byte[] body) throws Throwable {
+        return (int) INDEX_SIZE.invoke(PARALLEL_INDEX.invoke(body, ForkJoinPool.commonPool()));
+    }
+
+    static Object detectFormat(String data) throws Throwable {
+        return DETECT_STRING.invoke(DETECTOR, data);
+    }
+
+    static Object detectFormat(byte[] data) throws Throwable {
+        return DETECT_BYTES.invoke(DETECTOR, data, 0, data.length);
+    }
+
+    static String prettify(String json) throws Throwable {
+        return (String) PRETTIFY.invoke((CharSequence) json);
+    }
+
+    /** Renders a JSON event into a styled document in full, highlighting included. */
+    static Object renderJson(Object event) throws Throwable {
+        return RENDER.invoke(event, FORMAT_JSON, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    static String data(Object event) throws Throwable {
+        return (String) EVENT_DATA.invoke(event);
+    }
+}
@@ -0,0 +1,230 @@
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultStyledDocument;
+import javax.swing.text.Element;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.StyledDocument;
+
+/**
+ * Builds the styled document of the event detail pane. The document is built
+ * detached from any component, so it can be done off the EDT, and its content
+ * is inserted in one batch of element specs instead of one insertString call
+ * per token.
+ */
+public class EventDetailRenderer {
+
+    // Shared styles; never modified after class initialization
+    static final SimpleAttributeSet HEADER_STYLE = style(new Color(100, 200, 255), true);
+    static final SimpleAttributeSet LABEL_STYLE = style(new Color(150, 150, 150), false);
+    static final SimpleAttributeSet VALUE_STYLE = style(new Color(200, 200, 200), false);
+
+    // Indexed by JsonFormatter token kind
+    private static final SimpleAttributeSet[] JSON_STYLES = {
+        style(new Color(180, 180, 180), false), // punctuation
+        style(new Color(150, 200, 255), false), // key
+        style(new Color(144, 238, 144), false), // string
+        style(new Color(255, 200, 100), false), // number
+        style(new Color(255, 150, 150), false), // true/false/null
+    };
+
+    private static SimpleAttributeSet style(Color color, boolean bold) {
+        SimpleAttributeSet style = new SimpleAttributeSet();
+        StyleConstants.setForeground(style, color);
+        if (bold) {
+            StyleConstants.setBold(style, true);
+        }
+        return style;
+    }
+
+    /**
+     * Renders the header and the first page of the event data. Data is
+     * syntax highlighted only up to {@code highlightLimit} chars; larger
+     * payloads are shown as plain text.
+     */
+    public static Detail render(SSEEvent event, FormatType format, int pageChars, int highlightLimit) throws BadLocationException {
+        BatchDocument doc = new BatchDocument();
+
+        // Header
+        doc.append("Event Details\n", HEADER_STYLE);
+        doc.append("═══════════════════════════════════════════════\n\n", HEADER_STYLE);
+
+        // Event info
+        if (event.event != null) {
+            doc.append("Type: ", LABEL_STYLE);
+            doc.append(event.event + "\n", VALUE_STYLE);
+        }
+        if (event.id != null) {
+            doc.append("ID: ", LABEL_STYLE);
+            doc.append(event.id + "\n", VALUE_STYLE);
+        }
+        if (event.retry != null) {
+            doc.append("Retry: ", LABEL_STYLE);
+            doc.append(event.retry + " ms\n", VALUE_STYLE);
+        }
+
+        boolean highlight = format == FormatType.JSON && event.data != null && event.data.length() <= highlightLimit;
+        doc.append("Format: ", LABEL_STYLE);
+        doc.append(format.getDisplayName() + (format == FormatType.JSON && !highlight ? " (too large to highlight)" : "") + "\n\n", VALUE_STYLE);
+
+        doc.append("Data:\n", HEADER_STYLE);
+        doc.append("───────────────────────────────────────────────\n", HEADER_STYLE);
+
+        Detail detail;
+        if (event.data == null) {
+            doc.append("(no data)", LABEL_STYLE);
+            detail = new Detail(doc, "", null);
+        } else if (highlight) {
+            // Data with syntax highlighting
+            detail = new Detail(doc, event.data, JsonFormatter.format(event.data));
+        } else {
+            detail = new Detail(doc, event.data, null);
+        }
+
+        detail.appendPage(pageChars);
+        doc.commit();
+        return detail;
+    }
+
+    /**
+     * A rendered event whose data may be only partly in the document. Further
+     * pages are appended on demand; once the document is shown this must only
+     * happen on the EDT.
+     */
+    public static class Detail {
+        private final BatchDocument doc;
+        private final String data;
+        // Highlighted text and its runs, or null for plain text
+        private final JsonFormatter.Formatted json;
+        private final int textLength;
+        private int rendered;
+        private int nextRun;
+
+        Detail(BatchDocument doc, String data, JsonFormatter.Formatted json) {
+            this.doc = doc;
+            this.data = data;
+            this.json = json;
+            this.textLength = json != null ? json.length() : data.length();
+        }
+
+        public StyledDocument document() {
+            return doc;
+        }
+
+        /** The complete event data, regardless of how much is rendered. */
+        public String data() {
+            return data;
+        }
+
+        public boolean isComplete() {
+            return rendered >= textLength;
+        }
+
+        public int renderedChars() {
+            return rendered;
+        }
+
+        public int totalChars() {
+            return textLength;
+        }
+
+        /** Text of the data section that is not in the document yet. */
+        public String remainingText() {
+            if (isComplete()) {
+                return "";
+            }
+            return json != null ? new String(json.chars(), rendered, textLength - rendered) : data.substring(rendered);
+        }
+
+        public void appendAll() throws BadLocationException {
+            appendPage(Integer.MAX_VALUE);
+            doc.commit();
+        }
+
+        public void appendNextPage(int pageChars) throws BadLocationException {
+            appendPage(pageChars);
+            doc.commit();
+        }
+
+        private void appendPage(int pageChars) {
+            if (isComplete()) {
+                return;
+            }
+            int end = (int) Math.min(textLength, (long) rendered + pageChars);
+            if (json == null) {
+                char[] chars = new char[end - rendered];
+                data.getChars(rendered, end, chars, 0);
+                doc.append(chars, 0, chars.length, VALUE_STYLE);
+            } else {
+                char[] chars = json.chars();
+                while (nextRun < json.runCount() && json.runStart(nextRun) < end) {
+                    int runEnd = Math.min(json.runEnd(nextRun), end);
+                    doc.append(chars, Math.max(json.runStart(nextRun), rendered), runEnd,
+                        JSON_STYLES[json.runKind(nextRun)]);
+                    if (runEnd < json.runEnd(nextRun)) {
+                        // Page ends inside this run; continue it next time
+                        break;
+                    }
+                    nextRun++;
+                }
+                if (end == textLength) {
+                    doc.append("\n", JSON_STYLES[JsonFormatter.PUNCTUATION]);
+                }
+            }
+            rendered = end;
+        }
+    }
+
+    /**
+     * Styled document that collects content as element specs and inserts them
+     * all at once on {@link #commit()}.
+     */
+    static class BatchDocument extends DefaultStyledDocument {
+        private final List<ElementSpec> batch = new ArrayList<>();
+        private final AttributeSet paragraphAttributes;
+
+        BatchDocument() {
+            Element paragraph = getParagraphElement(0);
+            paragraphAttributes = paragraph.getAttributes();
+        }
+
+        void append(String text, AttributeSet style) {
+            char[] chars = text.toCharArray();
+            append(chars, 0, chars.length, style);
+        }
+
+        void append(char[] chars, int start, int end, AttributeSet style) {
+            int lineStart = start;
+            for (int i = start; i < end; i++) {
+                if (chars[i] == '\n') {
+                    // Each line is its own paragraph element
+                    batch.add(content(chars, lineStart, i + 1, style));
+                    batch.add(new ElementSpec(null, ElementSpec.EndTagType));
+                    batch.add(new ElementSpec(paragraphAttributes, ElementSpec.StartTagType));
+                    lineStart = i + 1;
+                }
+            }
+            if (lineStart < end) {
+                batch.add(content(chars, lineStart, end, style));
+            }
+        }
+
+        // ElementSpec copies the whole array it is given, so hand it only the slice
+        private static ElementSpec content(char[] chars, int start, int end, AttributeSet style) {
+            return new ElementSpec(style, ElementSpec.ContentType, Arrays.copyOfRange(chars, start, end), 0, end - start);
+        }
+
+        // Inserts everything appended so far at the end of the document
+        void commit() throws BadLocationException {
+            if (!batch.isEmpty()) {
+                insert(getLength(), batch.toArray(new ElementSpec[0]));
+                batch.clear();
+            }
+        }
+    }
+}
@@ -1,17 +1,107 @@
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import burp.api.montoya.BurpExtension;
 import burp.api.montoya.MontoyaApi;
 
 public class Extension implements BurpExtension {
+    // Responses waiting for a capture worker; more are dropped
+    private static final int CAPTURE_QUEUE_CAPACITY = 64;
+
     @Override
     public void initialize(MontoyaApi montoyaApi) {
         montoyaApi.extension().setName("SSE Editor");
         
+        // Shared background pool so parsing never runs on the Swing EDT
+        ExecutorService parseExecutor = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1)),
+            daemonThreads("SSE Parser"));
+        
+        // Parsed events shared by all editors, bounded by retained bytes
+        SSEViewerSettings settings = new SSEViewerSettings(montoyaApi.persistence().preferences());
+        SSEParseCache parseCache = new SSEParseCache(settings.parseCacheBudgetMb() * 1024L * 1024L);
+        
+        // Stage timings of the editors, shown in the SSE Diagnostics tab
+        SSEMetrics metrics = new SSEMetrics(montoyaApi.logging()::logToOutput);
+        metrics.setSlowThresholdMs(settings.slowStageLogMs());
+        
+        // Fork-join pool of daemon workers for statistics and for parsing huge bodies in parallel
+        AtomicInteger workerThreads = new AtomicInteger();
+        ForkJoinPool workerPool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("SSE Worker " + workerThreads.incrementAndGet());
+                return thread;
+            }, null, false);
+        
         // Register custom SSE tab in response viewer
         montoyaApi.userInterface().registerHttpResponseEditorProvider(
-            new SSEResponseEditorProvider(montoyaApi)
+            new SSEResponseEditorProvider(montoyaApi, parseExecutor, workerPool, parseCache, settings, metrics)
         );
         
+        // Optional capture of live event streams, parsed on low-priority workers
+        ThreadFactory captureThreads = daemonThreads("SSE Capture");
+        ThreadPoolExecutor captureExecutor = new ThreadPoolExecutor(2, 2, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(CAPTURE_QUEUE_CAPACITY), runnable -> {
+                Thread thread = captureThreads.newThread(runnable);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        captureExecutor.allowCoreThreadTimeOut(true);
+        // Captures beyond the heap budget spill to memory-mapped segment files
+        SSESegmentStore segmentStore = new SSESegmentStore(Path.of(System.getProperty("java.io.tmpdir")));
+        SSECaptureStore captureStore = new SSECaptureStore(captureExecutor, parseCache, segmentStore,
+            settings.captureBudgetMb() * 1024L * 1024L, settings.captureDiskBudgetMb() * 1024L * 1024L);
+        SSECaptureTab captureTab = new SSECaptureTab(montoyaApi, captureStore, parseExecutor, settings);
+        montoyaApi.userInterface().registerSuiteTab("SSE Capture", captureTab.uiComponent());
+
+        // Statistics across many responses, computed on the fork-join pool
+        SSEStatsTab statsTab = new SSEStatsTab(montoyaApi, workerPool);
+        montoyaApi.userInterface().registerSuiteTab("SSE Stats", statsTab.uiComponent());
+        montoyaApi.userInterface().registerContextMenuItemsProvider(statsTab);
+
+        // Event-level comparison of two responses, parsed on the shared pool
+        SSEDiffTab diffTab = new SSEDiffTab(montoyaApi, parseExecutor, parseCache);
+        montoyaApi.userInterface().registerSuiteTab("SSE Diff", diffTab.uiComponent());
+        montoyaApi.userInterface().registerContextMenuItemsProvider(diffTab);
+
+        SSEDiagnosticsTab diagnosticsTab = new SSEDiagnosticsTab(montoyaApi, metrics, parseCache, settings);
+        montoyaApi.userInterface().registerSuiteTab("SSE Diagnostics", diagnosticsTab.uiComponent());
+        
+        // Stop background threads and release cached events when the extension is unloaded
+        montoyaApi.extension().registerUnloadingHandler(() -> {
+            captureTab.dispose();
+            statsTab.dispose();
+            diffTab.dispose();
+            diagnosticsTab.dispose();
+            captureExecutor.shutdownNow();
+            workerPool.shutdownNow();
+            parseExecutor.shutdownNow();
+            montoyaApi.logging().logToOutput("SSE Editor parse cache: " + parseCache.hitCount() + " hits, " +
+                parseCache.missCount() + " misses, " + parseCache.evictionCount() + " evictions");
+            parseCache.clear();
+            captureStore.clear();
+            segmentStore.close();
+        });
+        
         montoyaApi.logging().logToOutput("SSE Editor extension loaded successfully");
         montoyaApi.logging().logToOutput("SSE tab now available in all response viewers!");
     }
-}
\ No newline at end of file
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + " " + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
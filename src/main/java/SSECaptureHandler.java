@@ -0,0 +1,110 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import burp.api.montoya.core.ByteArray;
+import burp.api.montoya.http.handler.HttpHandler;
+import burp.api.montoya.http.handler.HttpRequestToBeSent;
+import burp.api.montoya.http.handler.HttpResponseReceived;
+import burp.api.montoya.http.handler.RequestToBeSentAction;
+import burp.api.montoya.http.handler.ResponseReceivedAction;
+import burp.api.montoya.http.message.responses.HttpResponse;
+
+/**
+ * Hands text/event-stream responses to the capture store. Runs on Burp's
+ * traffic threads, so it only checks a header and queues the response;
+ * all parsing happens on the store's workers.
+ */
+public class SSECaptureHandler implements HttpHandler {
+
+    // Body bytes looked at when the Content-Type doesn't say event stream
+    private static final int SNIFF_LIMIT = 4096;
+    private static final byte[][] FIELD_PREFIXES = {
+        "data:".getBytes(StandardCharsets.US_ASCII),
+        "event:".getBytes(StandardCharsets.US_ASCII),
+        "id:".getBytes(StandardCharsets.US_ASCII)
+    };
+    private static final String[] BINARY_TYPES = {"image/", "audio/", "video/", "font/"};
+
+    private final SSECaptureStore store;
+
+    public SSECaptureHandler(SSECaptureStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public RequestToBeSentAction handleHttpRequestToBeSent(HttpRequestToBeSent requestToBeSent) {
+        return RequestToBeSentAction.continueWith(requestToBeSent);
+    }
+
+    @Override
+    public ResponseReceivedAction handleHttpResponseReceived(HttpResponseReceived responseReceived) {
+        if (isEventStream(responseReceived)) {
+            store.submit(responseReceived.initiatingRequest(), responseReceived);
+        }
+        return ResponseReceivedAction.continueWith(responseReceived);
+    }
+
+    static boolean isEventStream(HttpResponse response) {
+        String contentType = response.headerValue("Content-Type");
+        return contentType != null && contentType.trim().toLowerCase(Locale.ROOT).startsWith("text/event-stream");
+    }
+
+    /**
+     * Whether the response is an event stream by its Content-Type, or looks
+     * like one: a line among the first {@value #SNIFF_LIMIT} bytes of the
+     * body starts with a data, event or id field. Only that prefix of the
+     * body is copied, never decoded.
+     */
+    static boolean looksLikeEventStream(HttpResponse response) {
+        if (isEventStream(response)) {
+            return true;
+        }
+        String contentType = response.headerValue("Content-Type");
+        if (contentType != null) {
+            String type = contentType.trim().toLowerCase(Locale.ROOT);
+            for (String binary : BINARY_TYPES) {
+                if (type.startsWith(binary)) {
+                    return false;
+                }
+            }
+        }
+        // Sliced from the whole message so the rest of the body isn't copied
+        ByteArray message = response.toByteArray();
+        int offset = response.bodyOffset();
+        int length = Math.min(message.length() - offset, SNIFF_LIMIT);
+        if (length <= 0) {
+            return false;
+        }
+        return hasFieldLine(message.subArray(offset, offset + length).getBytes());
+    }
+
+    private static boolean hasFieldLine(byte[] head) {
+        // A UTF-8 byte order mark may precede the first line
+        int lineStart = head.length >= 3 && (head[0] & 0xff) == 0xef && (head[1] & 0xff) == 0xbb &&
+            (head[2] & 0xff) == 0xbf ? 3 : 0;
+        while (lineStart < head.length) {
+            for (byte[] prefix : FIELD_PREFIXES) {
+                if (startsWith(head, lineStart, prefix)) {
+                    return true;
+                }
+            }
+            while (lineStart < head.length && head[lineStart] != '\n' && head[lineStart] != '\r') {
+                lineStart++;
+            }
+            lineStart++;
+        }
+        return false;
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, byte[] prefix) {
+        if (bytes.length - offset < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,587 @@
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import burp.api.montoya.http.message.requests.HttpRequest;
+import burp.api.montoya.http.message.responses.HttpResponse;
+
+/**
+ * Event streams captured from live traffic, queryable across all captures
+ * by host, event type, id and text. Responses are parsed on a bounded pool;
+ * when it is saturated, or too many body bytes are waiting to be parsed,
+ * new captures are dropped instead of making the caller wait. Once the
+ * retained heap exceeds the budget, the oldest captures are spilled to a
+ * {@link SSESegmentStore}, and they are evicted once the disk budget is
+ * exceeded as well. Spilled captures are written outside the store's lock,
+ * and budgets and counters are read without it, so neither Burp's handler
+ * threads nor the UI wait for disk writes.
+ */
+public class SSECaptureStore {
+
+    // Rough per-capture bookkeeping beyond the event index
+    private static final long CAPTURE_OVERHEAD = 256;
+    // Rows of a capture below which a text query decodes candidates instead of building a search index
+    private static final int DIRECT_SCAN_LIMIT = 1024;
+    private static final int SEARCH_INDEX_CACHE_SIZE = 4;
+
+    private final ExecutorService workers;
+    private final SSEParseCache parseCache;
+    private final SSESegmentStore segmentStore;
+    // Oldest first
+    private final Deque<Capture> captures = new ArrayDeque<>();
+    private volatile long budgetBytes;
+    private volatile long diskBudgetBytes;
+    // Written under the lock, read without it
+    private volatile long retainedBytes;
+    private volatile long eventCount;
+    private volatile int captureCount;
+    // Heap of the captures being written to disk, freed once they are swapped in
+    private long spillingBytes;
+    private long nextId = 1;
+    private final Map<Long, SSESearchIndex> searchIndexes =
+        new LinkedHashMap<>(SEARCH_INDEX_CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SSESearchIndex> eldest) {
+                return size() > SEARCH_INDEX_CACHE_SIZE;
+            }
+        };
+
+    // Body bytes accepted but not parsed yet
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+
+    public SSECaptureStore(ExecutorService workers, SSEParseCache parseCache, SSESegmentStore segmentStore,
+                           long budgetBytes, long diskBudgetBytes) {
+        this.workers = workers;
+        this.parseCache = parseCache;
+        this.segmentStore = segmentStore;
+        this.budgetBytes = budgetBytes;
+        this.diskBudgetBytes = diskBudgetBytes;
+    }
+
+    /**
+     * Queues {@code response} for parsing. Never blocks; returns false when
+     * the capture was dropped because the store is saturated.
+     */
+    public boolean submit(HttpRequest request, HttpResponse response) {
+        long length = response.body().length();
+        // Bodies waiting to be parsed may use a quarter of the budget
+        if (pendingBytes.addAndGet(length) > budgetBytes() / 4) {
+            pendingBytes.addAndGet(-length);
+            dropped.incrementAndGet();
+            return false;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    capture(request, response);
+                } finally {
+                    pendingBytes.addAndGet(-length);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pendingBytes.addAndGet(-length);
+            dropped.incrementAndGet();
+            return false;
+        }
+    }
+
+    private void capture(HttpRequest request, HttpResponse response) {
+        byte[] body = response.body().getBytes();
+        CaptureBuilder builder = new CaptureBuilder(body);
+        SSEStreamParser parser = new SSEStreamParser(builder);
+        parser.feed(body);
+        parser.flush();
+        if (builder.events.size() == 0) {
+            return;
+        }
+
+        SSEEventIndex events = builder.events.snapshot();
+        // Opening the message in an SSE tab later needs no parsing
+        parseCache.put(body, events);
+
+        String host = request != null ? request.httpService().host() : "";
+        String url = request != null ? request.url() : "";
+        List<Capture> spills;
+        synchronized (this) {
+            Capture capture = builder.build(nextId++, host, url, System.currentTimeMillis(), events);
+            captures.addLast(capture);
+            captureCount = captures.size();
+            retainedBytes += capture.retainedBytes;
+            eventCount += events.size();
+            spills = pickSpills();
+        }
+        spill(spills);
+    }
+
+    /**
+     * Events matching all given criteria, newest capture first. Empty or null
+     * criteria match everything; host and text match case-insensitive
+     * substrings, event type and id match exactly. Returns null when the
+     * thread is interrupted.
+     */
+    public List<Match> query(String host, String eventType, String id, String text, int limit) {
+        List<Match> matches = new ArrayList<>();
+        boolean complete = visit(host, eventType, id, text, (capture, rows) -> {
+            for (int row = rows.nextSetBit(0); row >= 0 && matches.size() < limit; row = rows.nextSetBit(row + 1)) {
+                matches.add(new Match(capture, row));
+            }
+            return matches.size() < limit;
+        });
+        return complete ? matches : null;
+    }
+
+    /**
+     * Hands the matching rows of each capture to {@code visitor}, newest
+     * capture first, with the same criteria as {@link #query}. Returns false
+     * when the thread is interrupted.
+     */
+    public boolean visit(String host, String eventType, String id, String text, MatchVisitor visitor) {
+        List<Capture> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(captures);
+        }
+        for (int i = snapshot.size() - 1; i >= 0; i--) {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            Capture capture = snapshot.get(i);
+            BitSet rows = capture.rows(host, eventType, id, text);
+            if (rows != null && !rows.isEmpty() && !isBlank(text)) {
+                rows = matchText(capture, rows, text);
+            }
+            if (rows == null || rows.isEmpty()) {
+                continue;
+            }
+            if (!visitor.visit(capture, rows)) {
+                break;
+            }
+        }
+        return !Thread.currentThread().isInterrupted();
+    }
+
+    // Confirms the text of the candidate rows
+    private BitSet matchText(Capture capture, BitSet candidates, String text) {
+        if (candidates.cardinality() <= DIRECT_SCAN_LIMIT) {
+            BitSet matches = new BitSet();
+            for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+                if (SSESearchIndex.contains(capture.events().decode(row), text)) {
+                    matches.set(row);
+                }
+            }
+            return matches;
+        }
+        SSESearchIndex searchIndex;
+        synchronized (this) {
+            searchIndex = searchIndexes.get(capture.id);
+        }
+        if (searchIndex == null) {
+            searchIndex = SSESearchIndex.build(capture.events());
+            if (searchIndex == null) {
+                return null;
+            }
+            synchronized (this) {
+                // Not cached if the capture was evicted or spilled meanwhile
+                if (captures.contains(capture) && searchIndex.events() == capture.events()) {
+                    searchIndexes.put(capture.id, searchIndex);
+                }
+            }
+        }
+        BitSet matches = searchIndex.search(text);
+        if (matches != null) {
+            matches.and(candidates);
+        }
+        return matches;
+    }
+
+    /** Changes the heap budget; captures over it are spilled or evicted on a worker thread. */
+    public void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+        enforceBudgets();
+    }
+
+    public long budgetBytes() {
+        return budgetBytes;
+    }
+
+    /** Changes the disk budget; spilled captures over it are evicted on a worker thread. */
+    public void setDiskBudgetBytes(long diskBudgetBytes) {
+        this.diskBudgetBytes = diskBudgetBytes;
+        enforceBudgets();
+    }
+
+    public long diskBudgetBytes() {
+        return diskBudgetBytes;
+    }
+
+    /** Bytes of segment files holding spilled captures. */
+    public long diskBytes() {
+        return segmentStore.diskBytes();
+    }
+
+    public long retainedBytes() {
+        return retainedBytes;
+    }
+
+    public int captureCount() {
+        return captureCount;
+    }
+
+    public long eventCount() {
+        return eventCount;
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    public long evictionCount() {
+        return evicted.get();
+    }
+
+    public long spillCount() {
+        return spilled.get();
+    }
+
+    public synchronized void clear() {
+        for (Capture capture : captures) {
+            capture.removed = true;
+            segmentStore.release(capture.events());
+        }
+        captures.clear();
+        searchIndexes.clear();
+        captureCount = 0;
+        retainedBytes = 0;
+        eventCount = 0;
+    }
+
+    private void enforceBudgets() {
+        try {
+            workers.execute(() -> {
+                List<Capture> spills;
+                synchronized (this) {
+                    spills = pickSpills();
+                    evictOverDiskBudget();
+                }
+                spill(spills);
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the next capture applies the budgets
+        }
+    }
+
+    // Over the heap budget the oldest heap captures are picked for spilling,
+    // or evicted when spilling is off. Called with the lock held
+    private List<Capture> pickSpills() {
+        List<Capture> picked = new ArrayList<>();
+        Iterator<Capture> iterator = captures.iterator();
+        while (retainedBytes - spillingBytes > budgetBytes && iterator.hasNext()) {
+            Capture capture = iterator.next();
+            if (capture.events().isSpilled() || capture.spilling) {
+                continue;
+            }
+            if (diskBudgetBytes > 0) {
+                capture.spilling = true;
+                spillingBytes += capture.retainedBytes;
+                picked.add(capture);
+            } else {
+                evict(iterator, capture);
+            }
+        }
+        return picked;
+    }
+
+    // Writes the picked captures to disk without the lock, then swaps the
+    // stored copies in; captures whose spill fails are evicted
+    private void spill(List<Capture> picked) {
+        for (Capture capture : picked) {
+            SSEEventIndex stored;
+            try {
+                stored = segmentStore.append(capture.events());
+            } catch (IOException e) {
+                stored = null;
+            }
+            synchronized (this) {
+                capture.spilling = false;
+                spillingBytes -= capture.retainedBytes;
+                if (capture.removed) {
+                    // Evicted or cleared meanwhile
+                    if (stored != null) {
+                        segmentStore.release(stored);
+                    }
+                } else if (stored == null) {
+                    Iterator<Capture> iterator = captures.iterator();
+                    while (iterator.hasNext()) {
+                        if (iterator.next() == capture) {
+                            evict(iterator, capture);
+                            break;
+                        }
+                    }
+                } else {
+                    long before = capture.retainedBytes;
+                    capture.spilled(stored);
+                    retainedBytes -= before - capture.retainedBytes;
+                    // A cached search index would keep the heap body alive
+                    searchIndexes.remove(capture.id);
+                    spilled.incrementAndGet();
+                }
+                evictOverDiskBudget();
+            }
+        }
+    }
+
+    // Over the disk budget the oldest spilled captures are evicted. Called with the lock held
+    private void evictOverDiskBudget() {
+        Iterator<Capture> iterator = captures.iterator();
+        while (segmentStore.diskBytes() > diskBudgetBytes && iterator.hasNext()) {
+            Capture capture = iterator.next();
+            if (capture.events().isSpilled()) {
+                evict(iterator, capture);
+            }
+        }
+    }
+
+    private void evict(Iterator<Capture> iterator, Capture capture) {
+        retainedBytes -= capture.retainedBytes;
+        eventCount -= capture.events().size();
+        searchIndexes.remove(capture.id);
+        segmentStore.release(capture.events());
+        capture.removed = true;
+        iterator.remove();
+        captureCount = captures.size();
+        evicted.incrementAndGet();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /** One captured response and the lookup structures built while parsing it. */
+    public static class Capture {
+        private final long id;
+        private final String host;
+        private final String url;
+        private final long time;
+        // Replaced by an index over disk when spilled; queries read it without the store's lock
+        private volatile SSEEventIndex events;
+        // Type and id lookups; null once spilled, when the segment records are scanned instead
+        private volatile Lookup lookup;
+        // Trigrams present anywhere in the capture
+        private final long[] trigramMask;
+        // Guarded by the store
+        private long retainedBytes;
+        private boolean spilling;
+        private boolean removed;
+
+        Capture(long id, String host, String url, long time, SSEEventIndex events, Lookup lookup,
+                long[] trigramMask) {
+            this.id = id;
+            this.host = host;
+            this.url = url;
+            this.time = time;
+            this.events = events;
+            this.lookup = lookup;
+            this.trigramMask = trigramMask;
+            this.retainedBytes = CAPTURE_OVERHEAD + events.retainedBytes() + lookup.retainedBytes(events.size()) +
+                8L * trigramMask.length;
+        }
+
+        public long id() {
+            return id;
+        }
+
+        public String host() {
+            return host;
+        }
+
+        public String url() {
+            return url;
+        }
+
+        /** Capture time in epoch milliseconds. */
+        public long time() {
+            return time;
+        }
+
+        public SSEEventIndex events() {
+            return events;
+        }
+
+        private void spilled(SSEEventIndex stored) {
+            events = stored;
+            lookup = null;
+            retainedBytes = CAPTURE_OVERHEAD + events.retainedBytes() + 8L * trigramMask.length;
+        }
+
+        // Candidate rows for the criteria, or null when the capture can't match;
+        // text is only pre-filtered here and must still be confirmed
+        private BitSet rows(String host, String eventType, String id, String text) {
+            if (!isBlank(host) && !this.host.toLowerCase(Locale.ROOT).contains(host.trim().toLowerCase(Locale.ROOT))) {
+                return null;
+            }
+            if (!isBlank(text) && !SSESearchIndex.mayContain(trigramMask, text)) {
+                return null;
+            }
+            // Rows are the same before and after spilling, so either lookup will do
+            Lookup lookup = this.lookup;
+            SSEEventIndex events = this.events;
+            BitSet rows = new BitSet(events.size());
+            rows.set(0, events.size());
+            if (lookup == null) {
+                return events.isSpilled() ? spilledRows(events, eventType, id, rows) : rows;
+            }
+            if (!isBlank(eventType)) {
+                BitSet typed = lookup.rowsByType.get(eventType.trim());
+                if (typed == null) {
+                    return null;
+                }
+                rows.and(typed);
+            }
+            if (!isBlank(id)) {
+                String key = id.trim();
+                String[] sortedIds = lookup.sortedIds;
+                int first = Arrays.binarySearch(sortedIds, key);
+                if (first < 0) {
+                    return null;
+                }
+                while (first > 0 && sortedIds[first - 1].equals(key)) {
+                    first--;
+                }
+                BitSet withId = new BitSet(events.size());
+                for (int i = first; i < sortedIds.length && sortedIds[i].equals(key); i++) {
+                    withId.set(lookup.idRows[i]);
+                }
+                rows.and(withId);
+            }
+            return rows;
+        }
+
+        // Scans the fixed-width records; ids are compared by hash and confirmed from the block
+        private static BitSet spilledRows(SSEEventIndex events, String eventType, String id, BitSet rows) {
+            SSESegmentStore.Span span = events.span();
+            int typeId = -1;
+            if (!isBlank(eventType)) {
+                typeId = span.typeIdOf(eventType.trim());
+                if (typeId < 0) {
+                    return null;
+                }
+            }
+            String key = isBlank(id) ? null : id.trim();
+            int idHash = key != null ? key.hashCode() : 0;
+            for (int row = 0; row < events.size(); row++) {
+                if ((typeId >= 0 && span.typeId(row) != typeId) ||
+                    (key != null && (span.idHash(row) != idHash || !key.equals(events.id(row))))) {
+                    rows.clear(row);
+                }
+            }
+            return rows;
+        }
+    }
+
+    // Heap lookups of a capture: rows per event type, where events without a
+    // type are "message" events, and ids in sorted order with the row of each
+    private static class Lookup {
+        final Map<String, BitSet> rowsByType;
+        final String[] sortedIds;
+        final int[] idRows;
+
+        Lookup(Map<String, BitSet> rowsByType, String[] sortedIds, int[] idRows) {
+            this.rowsByType = rowsByType;
+            this.sortedIds = sortedIds;
+            this.idRows = idRows;
+        }
+
+        long retainedBytes(int events) {
+            long idBytes = 0;
+            for (String value : sortedIds) {
+                idBytes += 48 + 2L * value.length();
+            }
+            return idBytes + 64L * rowsByType.size() + (long) rowsByType.size() * events / 8;
+        }
+    }
+
+    /** Receives the matching rows of one capture; returns false to stop the visit. */
+    public interface MatchVisitor {
+        boolean visit(Capture capture, BitSet rows);
+    }
+
+    /** An event of a capture. */
+    public static class Match {
+        private final Capture capture;
+        private final int row;
+
+        Match(Capture capture, int row) {
+            this.capture = capture;
+            this.row = row;
+        }
+
+        public Capture capture() {
+            return capture;
+        }
+
+        public int row() {
+            return row;
+        }
+    }
+
+    // Builds the event index and the lookup structures in the same pass
+    private static class CaptureBuilder implements SSEStreamParser.EventHandler {
+        final SSEEventIndex.Builder events;
+        private final Map<String, BitSet> rowsByType = new HashMap<>();
+        private final List<String> ids = new ArrayList<>();
+        private final List<Integer> idRows = new ArrayList<>();
+        private final long[] trigramMask = SSESearchIndex.newTrigramMask();
+
+        CaptureBuilder(byte[] body) {
+            events = new SSEEventIndex.Builder(body);
+        }
+
+        @Override
+        public void onEvent(SSEStreamParser parser) {
+            int row = events.size();
+            events.onEvent(parser);
+            String type = parser.eventType();
+            rowsByType.computeIfAbsent(type != null ? type : "message", k -> new BitSet()).set(row);
+            if (parser.idLength() >= 0) {
+                ids.add(parser.id());
+                idRows.add(row);
+                SSESearchIndex.markTrigrams(trigramMask, parser.idBytes(), parser.idLength());
+            }
+            if (parser.eventTypeLength() >= 0) {
+                SSESearchIndex.markTrigrams(trigramMask, parser.eventTypeBytes(), parser.eventTypeLength());
+            }
+            SSESearchIndex.markTrigrams(trigramMask, parser.dataBytes(), parser.dataLength());
+        }
+
+        Capture build(long id, String host, String url, long time, SSEEventIndex index) {
+            Integer[] order = new Integer[ids.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> ids.get(a).compareTo(ids.get(b)));
+            String[] sortedIds = new String[order.length];
+            int[] sortedRows = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedIds[i] = ids.get(order[i]);
+                sortedRows[i] = idRows.get(order[i]);
+            }
+            return new Capture(id, host, url, time, index, new Lookup(rowsByType, sortedIds, sortedRows),
+                trigramMask);
+        }
+    }
+}
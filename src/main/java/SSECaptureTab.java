@@ -0,0 +1,380 @@
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
+import javax.swing.JSplitPane;
+import javax.swing.JTable;
+import javax.swing.JTextArea;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.core.Registration;
+
+/**
+ * Suite tab for the capture store: turns capturing on and off and queries
+ * events across all captured streams.
+ */
+public class SSECaptureTab {
+
+    private static final int RESULT_LIMIT = 10_000;
+    private static final int STATUS_REFRESH_MS = 1000;
+
+    private final MontoyaApi montoyaApi;
+    private final SSECaptureStore store;
+    private final SSECaptureHandler handler;
+    private final ExecutorService queryExecutor;
+    private final SSEViewerSettings settings;
+    private final JPanel mainPanel;
+    private final JLabel statusLabel;
+    private final JTextField hostField;
+    private final JTextField typeField;
+    private final JTextField idField;
+    private final JTextField textField;
+    private final JLabel resultLabel;
+    private final JTextArea dataArea;
+    private final ResultTableModel resultModel;
+    private final Timer statusTimer;
+    private Registration handlerRegistration;
+    // Only touched on the EDT
+    private long queryGeneration;
+    private Future<?> queryTask;
+    private long detailGeneration;
+    private Future<?> detailTask;
+
+    public SSECaptureTab(MontoyaApi montoyaApi, SSECaptureStore store, ExecutorService queryExecutor,
+                         SSEViewerSettings settings) {
+        this.montoyaApi = montoyaApi;
+        this.store = store;
+        this.handler = new SSECaptureHandler(store);
+        this.queryExecutor = queryExecutor;
+        this.settings = settings;
+
+        Font burpFont = montoyaApi.userInterface().currentEditorFont();
+        mainPanel = new JPanel(new BorderLayout());
+        resultModel = new ResultTableModel();
+
+        // Capture toggle and store status
+        JCheckBox enabledCheckBox = new JCheckBox("Capture text/event-stream responses from all tools",
+            settings.captureEnabled());
+        enabledCheckBox.addActionListener(e -> setCaptureEnabled(enabledCheckBox.isSelected()));
+        statusLabel = new JLabel(" ");
+        statusLabel.setFont(burpFont);
+        JButton clearButton = new JButton("Clear");
+        clearButton.addActionListener(e -> {
+            resultModel.setMatches(new ArrayList<>());
+            // Releasing spilled captures may wait for a spill in progress
+            queryExecutor.submit(() -> {
+                store.clear();
+                SwingUtilities.invokeLater(this::refreshStatus);
+            });
+        });
+        // Budgets apply right away; the store spills or evicts on a worker
+        JSpinner heapBudgetSpinner = new JSpinner(new SpinnerNumberModel(settings.captureBudgetMb(), 0, 65_536, 64));
+        heapBudgetSpinner.addChangeListener(e -> {
+            int budgetMb = (Integer) heapBudgetSpinner.getValue();
+            settings.setCaptureBudgetMb(budgetMb);
+            store.setBudgetBytes(budgetMb * 1024L * 1024L);
+            refreshStatus();
+        });
+        JSpinner diskBudgetSpinner = new JSpinner(
+            new SpinnerNumberModel(settings.captureDiskBudgetMb(), 0, 1_048_576, 512));
+        diskBudgetSpinner.addChangeListener(e -> {
+            int budgetMb = (Integer) diskBudgetSpinner.getValue();
+            settings.setCaptureDiskBudgetMb(budgetMb);
+            store.setDiskBudgetBytes(budgetMb * 1024L * 1024L);
+            refreshStatus();
+        });
+        JPanel budgetPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 6, 0));
+        budgetPanel.add(new JLabel("Heap"));
+        budgetPanel.add(heapBudgetSpinner);
+        budgetPanel.add(new JLabel("MB  Disk"));
+        budgetPanel.add(diskBudgetSpinner);
+        budgetPanel.add(new JLabel("MB (0 = no spilling)"));
+        budgetPanel.add(clearButton);
+        JPanel captureBar = new JPanel(new BorderLayout(6, 0));
+        captureBar.setBorder(BorderFactory.createEmptyBorder(4, 6, 2, 6));
+        captureBar.add(enabledCheckBox, BorderLayout.WEST);
+        captureBar.add(statusLabel, BorderLayout.CENTER);
+        captureBar.add(budgetPanel, BorderLayout.EAST);
+
+        // Query fields; empty fields match everything
+        hostField = new JTextField(12);
+        typeField = new JTextField(10);
+        idField = new JTextField(8);
+        textField = new JTextField(20);
+        JButton searchButton = new JButton("Search");
+        searchButton.addActionListener(e -> runQuery());
+        JButton exportButton = new JButton("Export\u2026");
+        exportButton.setToolTipText("Export every event matching the query to NDJSON, CSV or raw SSE");
+        exportButton.addActionListener(e -> exportMatches());
+        resultLabel = new JLabel();
+        JPanel queryBar = new JPanel(new FlowLayout(FlowLayout.LEFT, 6, 2));
+        queryBar.add(new JLabel("Host:"));
+        queryBar.add(hostField);
+        queryBar.add(new JLabel("Type:"));
+        queryBar.add(typeField);
+        queryBar.add(new JLabel("ID:"));
+        queryBar.add(idField);
+        queryBar.add(new JLabel("Text:"));
+        queryBar.add(textField);
+        queryBar.add(searchButton);
+        queryBar.add(exportButton);
+        queryBar.add(resultLabel);
+        for (JTextField field : new JTextField[] {hostField, typeField, idField, textField}) {
+            field.setFont(burpFont);
+            field.addActionListener(e -> runQuery());
+        }
+
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(captureBar, BorderLayout.NORTH);
+        topPanel.add(queryBar, BorderLayout.SOUTH);
+        mainPanel.add(topPanel, BorderLayout.NORTH);
+
+        // Results and the data of the selected event
+        JTable resultTable = new JTable(resultModel);
+        resultTable.setFont(burpFont);
+        resultTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultTable.getColumnModel().getColumn(0).setPreferredWidth(80);
+        resultTable.getColumnModel().getColumn(1).setPreferredWidth(150);
+        resultTable.getColumnModel().getColumn(2).setPreferredWidth(250);
+        resultTable.getColumnModel().getColumn(3).setPreferredWidth(60);
+        resultTable.getColumnModel().getColumn(4).setPreferredWidth(100);
+        resultTable.getColumnModel().getColumn(5).setPreferredWidth(80);
+        resultTable.getColumnModel().getColumn(6).setPreferredWidth(300);
+
+        dataArea = new JTextArea();
+        dataArea.setEditable(false);
+        dataArea.setFont(burpFont);
+        dataArea.setBackground(new Color(30, 30, 30));
+        dataArea.setForeground(new Color(200, 200, 200));
+        dataArea.setCaretColor(new Color(200, 200, 200));
+
+        resultTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                int row = resultTable.getSelectedRow();
+                showData(row >= 0 ? resultModel.match(row) : null);
+            }
+        });
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+            new JScrollPane(resultTable), new JScrollPane(dataArea));
+        splitPane.setResizeWeight(0.6);
+        mainPanel.add(splitPane, BorderLayout.CENTER);
+
+        statusTimer = new Timer(STATUS_REFRESH_MS, e -> refreshStatus());
+        statusTimer.start();
+        setCaptureEnabled(settings.captureEnabled());
+    }
+
+    public Component uiComponent() {
+        return mainPanel;
+    }
+
+    /** Stops capturing and status updates; called when the extension is unloaded. */
+    public void dispose() {
+        statusTimer.stop();
+        if (queryTask != null) {
+            queryTask.cancel(true);
+        }
+        if (detailTask != null) {
+            detailTask.cancel(true);
+        }
+        if (handlerRegistration != null) {
+            handlerRegistration.deregister();
+            handlerRegistration = null;
+        }
+    }
+
+    // The handler is only registered while capturing, so disabled capture costs nothing
+    private void setCaptureEnabled(boolean enabled) {
+        settings.setCaptureEnabled(enabled);
+        if (enabled && handlerRegistration == null) {
+            handlerRegistration = montoyaApi.http().registerHttpHandler(handler);
+        } else if (!enabled && handlerRegistration != null) {
+            handlerRegistration.deregister();
+            handlerRegistration = null;
+        }
+        refreshStatus();
+    }
+
+    private void refreshStatus() {
+        statusLabel.setText(String.format("%d streams, %d events, %.1f of %d MB in memory, %d of %d MB on disk, " +
+                "%d dropped",
+            store.captureCount(), store.eventCount(), store.retainedBytes() / (1024.0 * 1024.0),
+            store.budgetBytes() / (1024 * 1024), store.diskBytes() / (1024 * 1024),
+            store.diskBudgetBytes() / (1024 * 1024), store.droppedCount()));
+    }
+
+    // Events can be many MB, so the data is decoded off the EDT
+    private void showData(SSECaptureStore.Match match) {
+        long generation = ++detailGeneration;
+        if (detailTask != null) {
+            detailTask.cancel(true);
+            detailTask = null;
+        }
+        if (match == null) {
+            dataArea.setText("");
+            return;
+        }
+        dataArea.setText("Loading\u2026");
+        detailTask = queryExecutor.submit(() -> {
+            try {
+                String data = match.capture().events().data(match.row());
+                SwingUtilities.invokeLater(() -> {
+                    if (generation != detailGeneration) {
+                        return;
+                    }
+                    detailTask = null;
+                    dataArea.setText(data != null ? data : "");
+                    dataArea.setCaretPosition(0);
+                });
+            } catch (Exception e) {
+                montoyaApi.logging().logToError("Error decoding captured SSE event: " + e.getMessage());
+            }
+        });
+    }
+
+    private void runQuery() {
+        long generation = ++queryGeneration;
+        if (queryTask != null) {
+            queryTask.cancel(true);
+        }
+        String host = hostField.getText();
+        String type = typeField.getText();
+        String id = idField.getText();
+        String text = textField.getText();
+        resultLabel.setText("Searching\u2026");
+        queryTask = queryExecutor.submit(() -> {
+            try {
+                List<SSECaptureStore.Match> matches = store.query(host, type, id, text, RESULT_LIMIT);
+                if (matches == null) {
+                    return; // Superseded by a newer query
+                }
+                SwingUtilities.invokeLater(() -> {
+                    if (generation != queryGeneration) {
+                        return;
+                    }
+                    queryTask = null;
+                    resultModel.setMatches(matches);
+                    resultLabel.setText(matches.size() >= RESULT_LIMIT
+                        ? "First " + RESULT_LIMIT + " events" : matches.size() + " events");
+                });
+            } catch (Exception e) {
+                montoyaApi.logging().logToError("Error querying captured SSE events: " + e.getMessage());
+            }
+        });
+    }
+
+    // Streams all matches, not just the listed ones, straight from the store
+    private void exportMatches() {
+        SSEExportDialog.Target target = SSEExportDialog.chooseTarget(mainPanel, "Export Captured SSE Events");
+        if (target == null) {
+            return;
+        }
+        String host = hostField.getText();
+        String type = typeField.getText();
+        String id = idField.getText();
+        String text = textField.getText();
+        resultLabel.setText("Exporting\u2026");
+        queryExecutor.submit(() -> {
+            try (SSEExporter exporter = new SSEExporter(target.path(), target.format())) {
+                try {
+                    store.visit(host, type, id, text, (capture, rows) -> {
+                        try {
+                            exporter.write(capture.events(), rows, capture.url());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return true;
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                long count = exporter.eventCount();
+                SwingUtilities.invokeLater(() -> resultLabel.setText("Exported " + count + " events to " +
+                    target.path().getFileName()));
+            } catch (IOException e) {
+                montoyaApi.logging().logToError("Error exporting captured SSE events: " + e.getMessage());
+                SwingUtilities.invokeLater(() -> {
+                    resultLabel.setText("Export failed");
+                    JOptionPane.showMessageDialog(mainPanel, e.getMessage(), "Export Captured SSE Events",
+                        JOptionPane.ERROR_MESSAGE);
+                });
+            }
+        });
+    }
+
+    private static class ResultTableModel extends AbstractTableModel {
+        private final String[] columnNames = {"Time", "Host", "URL", "Event #", "Type", "ID", "Data Preview"};
+        private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+        private List<SSECaptureStore.Match> matches = new ArrayList<>();
+
+        void setMatches(List<SSECaptureStore.Match> matches) {
+            this.matches = matches;
+            fireTableDataChanged();
+        }
+
+        SSECaptureStore.Match match(int row) {
+            return matches.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return matches.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            SSECaptureStore.Match match = matches.get(rowIndex);
+            // Read from the index columns; full data is only decoded for the selected row
+            SSEEventIndex events = match.capture().events();
+            switch (columnIndex) {
+                case 0: return timeFormat.format(new Date(match.capture().time()));
+                case 1: return match.capture().host();
+                case 2: return match.capture().url();
+                case 3: return String.valueOf(match.row() + 1);
+                case 4: return orNA(events.eventType(match.row()));
+                case 5: return orNA(events.id(match.row()));
+                case 6: return events.dataPreview(match.row(), 80);
+                default: return "";
+            }
+        }
+
+        private String orNA(String value) {
+            return value != null ? value : "N/A";
+        }
+    }
+}
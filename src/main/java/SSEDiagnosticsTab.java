@@ -0,0 +1,129 @@
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.FlowLayout;
+import java.awt.Font;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
+import javax.swing.JTextArea;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.Timer;
+
+import burp.api.montoya.MontoyaApi;
+
+/**
+ * Suite tab showing {@link SSEMetrics} of the editors along with the parse
+ * cache counters, refreshed while the tab is visible.
+ */
+public class SSEDiagnosticsTab {
+
+    private static final int REFRESH_MS = 1000;
+
+    private final SSEMetrics metrics;
+    private final SSEParseCache parseCache;
+    private final JPanel mainPanel;
+    private final JTextArea reportArea;
+    private final Timer refreshTimer;
+
+    public SSEDiagnosticsTab(MontoyaApi montoyaApi, SSEMetrics metrics, SSEParseCache parseCache,
+                             SSEViewerSettings settings) {
+        this.metrics = metrics;
+        this.parseCache = parseCache;
+
+        Font burpFont = montoyaApi.userInterface().currentEditorFont();
+        mainPanel = new JPanel(new BorderLayout());
+
+        JButton resetButton = new JButton("Reset");
+        resetButton.addActionListener(e -> {
+            metrics.reset();
+            refresh();
+        });
+        JSpinner thresholdSpinner = new JSpinner(new SpinnerNumberModel(settings.slowStageLogMs(), 0, 60_000, 50));
+        thresholdSpinner.addChangeListener(e -> {
+            int thresholdMs = (Integer) thresholdSpinner.getValue();
+            settings.setSlowStageLogMs(thresholdMs);
+            metrics.setSlowThresholdMs(thresholdMs);
+        });
+        JSpinner cacheBudgetSpinner = new JSpinner(
+            new SpinnerNumberModel(settings.parseCacheBudgetMb(), 0, 16_384, 16));
+        cacheBudgetSpinner.addChangeListener(e -> {
+            int budgetMb = (Integer) cacheBudgetSpinner.getValue();
+            settings.setParseCacheBudgetMb(budgetMb);
+            // Evicts right away when lowered
+            parseCache.setBudgetBytes(budgetMb * 1024L * 1024L);
+            refresh();
+        });
+        // Read by the editors on each selection, so no reload is needed
+        JSpinner detailPageSpinner = new JSpinner(new SpinnerNumberModel(settings.detailPageKb(), 1, 65_536, 16));
+        detailPageSpinner.addChangeListener(e -> settings.setDetailPageKb((Integer) detailPageSpinner.getValue()));
+        JSpinner highlightLimitSpinner = new JSpinner(
+            new SpinnerNumberModel(settings.highlightLimitKb(), 0, 65_536, 256));
+        highlightLimitSpinner.addChangeListener(
+            e -> settings.setHighlightLimitKb((Integer) highlightLimitSpinner.getValue()));
+
+        JPanel actionBar = new JPanel(new FlowLayout(FlowLayout.LEFT, 6, 2));
+        actionBar.setBorder(BorderFactory.createEmptyBorder(4, 0, 2, 0));
+        actionBar.add(resetButton);
+        actionBar.add(new JLabel("Log stages slower than"));
+        actionBar.add(thresholdSpinner);
+        actionBar.add(new JLabel("ms (0 = off)"));
+        actionBar.add(new JLabel("   Parse cache budget"));
+        actionBar.add(cacheBudgetSpinner);
+        actionBar.add(new JLabel("MB"));
+
+        JPanel detailBar = new JPanel(new FlowLayout(FlowLayout.LEFT, 6, 2));
+        detailBar.add(new JLabel("Event detail page"));
+        detailBar.add(detailPageSpinner);
+        detailBar.add(new JLabel("KB   Highlight events up to"));
+        detailBar.add(highlightLimitSpinner);
+        detailBar.add(new JLabel("KB (0 = off)"));
+
+        JPanel settingsPanel = new JPanel(new BorderLayout());
+        settingsPanel.add(actionBar, BorderLayout.NORTH);
+        settingsPanel.add(detailBar, BorderLayout.SOUTH);
+        mainPanel.add(settingsPanel, BorderLayout.NORTH);
+
+        reportArea = new JTextArea();
+        reportArea.setEditable(false);
+        reportArea.setFont(burpFont);
+        reportArea.setBackground(new Color(30, 30, 30));
+        reportArea.setForeground(new Color(200, 200, 200));
+        reportArea.setCaretColor(new Color(200, 200, 200));
+        mainPanel.add(new JScrollPane(reportArea), BorderLayout.CENTER);
+
+        // Only refreshed while someone is looking at it
+        refreshTimer = new Timer(REFRESH_MS, e -> {
+            if (mainPanel.isShowing()) {
+                refresh();
+            }
+        });
+        refreshTimer.start();
+        refresh();
+    }
+
+    public Component uiComponent() {
+        return mainPanel;
+    }
+
+    public void dispose() {
+        refreshTimer.stop();
+    }
+
+    private void refresh() {
+        long lookups = parseCache.hitCount() + parseCache.missCount();
+        String report = metrics.report() + String.format(
+            "%nParse cache: %d hits, %d misses (%.1f%% hit rate), %d evictions, %d entries, %.1f MB retained%n",
+            parseCache.hitCount(), parseCache.missCount(),
+            lookups > 0 ? 100.0 * parseCache.hitCount() / lookups : 0.0, parseCache.evictionCount(),
+            parseCache.entryCount(), parseCache.retainedBytes() / (1024.0 * 1024.0));
+        if (!report.equals(reportArea.getText())) {
+            reportArea.setText(report);
+            reportArea.setCaretPosition(0);
+        }
+    }
+}
@@ -0,0 +1,406 @@
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.GridLayout;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.swing.BorderFactory;
+import javax.swing.JCheckBox;
+import javax.swing.JLabel;
+import javax.swing.JMenuItem;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.JTable;
+import javax.swing.JTextArea;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+
+import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.http.message.HttpRequestResponse;
+import burp.api.montoya.ui.contextmenu.ContextMenuEvent;
+import burp.api.montoya.ui.contextmenu.ContextMenuItemsProvider;
+
+/**
+ * Suite tab comparing two event streams event by event, e.g. a Repeater
+ * replay against the original proxied response. Two messages are compared
+ * from the context menu, either both selected at once or one after the
+ * other via a base message.
+ */
+public class SSEDiffTab implements ContextMenuItemsProvider {
+
+    private static final Color[] KIND_COLORS = {
+        new Color(40, 40, 40),   // Equal
+        new Color(90, 75, 20),   // Changed
+        new Color(30, 60, 90),   // Moved
+        new Color(95, 35, 35),   // Removed
+        new Color(30, 80, 40)    // Added
+    };
+
+    private final MontoyaApi montoyaApi;
+    private final ExecutorService diffExecutor;
+    private final SSEParseCache parseCache;
+    private final JPanel mainPanel;
+    private final JLabel statusLabel;
+    private final JCheckBox hideEqualCheckBox;
+    private final DiffTableModel diffModel;
+    private final JTable diffTable;
+    private final JLabel fieldsLabel;
+    private final JTextArea leftArea;
+    private final JTextArea rightArea;
+    // Only touched on the EDT
+    private HttpRequestResponse base;
+    private long diffGeneration;
+    private Future<?> diffTask;
+    private long entryGeneration;
+    private Future<?> entryTask;
+
+    public SSEDiffTab(MontoyaApi montoyaApi, ExecutorService diffExecutor, SSEParseCache parseCache) {
+        this.montoyaApi = montoyaApi;
+        this.diffExecutor = diffExecutor;
+        this.parseCache = parseCache;
+
+        Font burpFont = montoyaApi.userInterface().currentEditorFont();
+        mainPanel = new JPanel(new BorderLayout());
+
+        diffModel = new DiffTableModel();
+        statusLabel = new JLabel("Select two messages and choose \"Compare SSE streams\", " +
+            "or set a base message first and compare another one with it.");
+        hideEqualCheckBox = new JCheckBox("Hide equal events");
+        hideEqualCheckBox.addActionListener(e -> diffModel.setHideEqual(hideEqualCheckBox.isSelected()));
+        JPanel topBar = new JPanel(new FlowLayout(FlowLayout.LEFT, 6, 2));
+        topBar.setBorder(BorderFactory.createEmptyBorder(4, 0, 2, 0));
+        topBar.add(hideEqualCheckBox);
+        topBar.add(statusLabel);
+        mainPanel.add(topBar, BorderLayout.NORTH);
+
+        diffTable = new JTable(diffModel);
+        diffTable.setFont(burpFont);
+        diffTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        diffTable.getColumnModel().getColumn(0).setPreferredWidth(80);
+        diffTable.getColumnModel().getColumn(1).setPreferredWidth(60);
+        diffTable.getColumnModel().getColumn(2).setPreferredWidth(60);
+        diffTable.getColumnModel().getColumn(3).setPreferredWidth(120);
+        diffTable.getColumnModel().getColumn(4).setPreferredWidth(300);
+        diffTable.getColumnModel().getColumn(5).setPreferredWidth(300);
+        DefaultTableCellRenderer kindRenderer = new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                           boolean hasFocus, int row, int column) {
+                Component component = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row,
+                    column);
+                if (!isSelected) {
+                    component.setBackground(KIND_COLORS[diffModel.kind(row).ordinal()]);
+                    component.setForeground(new Color(220, 220, 220));
+                }
+                return component;
+            }
+        };
+        for (int column = 0; column < diffModel.getColumnCount(); column++) {
+            diffTable.getColumnModel().getColumn(column).setCellRenderer(kindRenderer);
+        }
+
+        // Fields of the selected pair side by side
+        fieldsLabel = new JLabel(" ");
+        fieldsLabel.setFont(burpFont);
+        fieldsLabel.setBorder(BorderFactory.createEmptyBorder(2, 6, 2, 6));
+        leftArea = new JTextArea();
+        rightArea = new JTextArea();
+        for (JTextArea area : new JTextArea[] {leftArea, rightArea}) {
+            area.setEditable(false);
+            area.setFont(burpFont);
+            area.setBackground(new Color(30, 30, 30));
+            area.setForeground(new Color(200, 200, 200));
+            area.setCaretColor(new Color(200, 200, 200));
+        }
+        JPanel sides = new JPanel(new GridLayout(1, 2, 6, 0));
+        sides.add(new JScrollPane(leftArea));
+        sides.add(new JScrollPane(rightArea));
+        JPanel detailPanel = new JPanel(new BorderLayout());
+        detailPanel.add(fieldsLabel, BorderLayout.NORTH);
+        detailPanel.add(sides, BorderLayout.CENTER);
+
+        diffTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                showEntry(diffTable.getSelectedRow());
+            }
+        });
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(diffTable), detailPanel);
+        splitPane.setResizeWeight(0.6);
+        mainPanel.add(splitPane, BorderLayout.CENTER);
+    }
+
+    public Component uiComponent() {
+        return mainPanel;
+    }
+
+    @Override
+    public List<Component> provideMenuItems(ContextMenuEvent event) {
+        List<HttpRequestResponse> selected = new ArrayList<>(event.selectedRequestResponses());
+        if (selected.isEmpty()) {
+            event.messageEditorRequestResponse().ifPresent(editor -> selected.add(editor.requestResponse()));
+        }
+        List<Component> items = new ArrayList<>();
+        if (selected.size() == 2) {
+            JMenuItem compare = new JMenuItem("Compare SSE streams");
+            compare.addActionListener(e -> compare(selected.get(0), selected.get(1)));
+            items.add(compare);
+        } else if (selected.size() == 1) {
+            HttpRequestResponse message = selected.get(0);
+            JMenuItem setBase = new JMenuItem("Set as SSE diff base");
+            setBase.addActionListener(e -> {
+                base = message;
+                statusLabel.setText("Base: " + describe(message) + ". Compare another message with it.");
+            });
+            items.add(setBase);
+            if (base != null) {
+                HttpRequestResponse left = base;
+                JMenuItem compare = new JMenuItem("Compare SSE stream with base");
+                compare.addActionListener(e -> compare(left, message));
+                items.add(compare);
+            }
+        }
+        return items;
+    }
+
+    /** Cancels a running comparison; called when the extension is unloaded. */
+    public void dispose() {
+        if (diffTask != null) {
+            diffTask.cancel(true);
+        }
+        if (entryTask != null) {
+            entryTask.cancel(true);
+        }
+    }
+
+    private void compare(HttpRequestResponse left, HttpRequestResponse right) {
+        long generation = ++diffGeneration;
+        if (diffTask != null) {
+            diffTask.cancel(true);
+        }
+        String description = describe(left) + " \u2194 " + describe(right);
+        statusLabel.setText("Comparing " + description + "\u2026");
+        diffTask = diffExecutor.submit(() -> {
+            try {
+                long started = System.currentTimeMillis();
+                SSEEventIndex leftEvents = index(left);
+                SSEEventIndex rightEvents = index(right);
+                SSEDiff.Result result = SSEDiff.diff(leftEvents, rightEvents);
+                if (result == null) {
+                    return; // Superseded by a newer comparison
+                }
+                long elapsed = System.currentTimeMillis() - started;
+                SwingUtilities.invokeLater(() -> {
+                    if (generation != diffGeneration) {
+                        return;
+                    }
+                    diffTask = null;
+                    diffModel.setResult(leftEvents, rightEvents, result);
+                    statusLabel.setText(String.format("%s: %d equal, %d changed, %d moved, %d removed, %d added " +
+                            "(%d vs %d events, %d ms)", description,
+                        result.count(SSEDiff.Kind.EQUAL), result.count(SSEDiff.Kind.CHANGED),
+                        result.count(SSEDiff.Kind.MOVED), result.count(SSEDiff.Kind.REMOVED),
+                        result.count(SSEDiff.Kind.ADDED), leftEvents.size(), rightEvents.size(), elapsed));
+                    showEntry(-1);
+                });
+            } catch (Exception e) {
+                montoyaApi.logging().logToError("Error comparing SSE streams: " + e.getMessage());
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == diffGeneration) {
+                        statusLabel.setText("Comparing " + description + " failed; see the extension's error log.");
+                    }
+                });
+            }
+        });
+    }
+
+    // Parsed events of a message, shared with the SSE tabs through the parse cache
+    private SSEEventIndex index(HttpRequestResponse message) {
+        if (message.response() == null) {
+            return SSEEventIndex.empty();
+        }
+        byte[] body = message.response().body().getBytes();
+        SSEEventIndex cached = parseCache.get(body);
+        if (cached != null) {
+            return cached;
+        }
+        SSEEventIndex.Builder builder = new SSEEventIndex.Builder(body);
+        SSEStreamParser parser = new SSEStreamParser(builder);
+        parser.feed(body);
+        parser.flush();
+        SSEEventIndex index = builder.snapshot();
+        parseCache.put(body, index);
+        return index;
+    }
+
+    private static String describe(HttpRequestResponse message) {
+        return message.request() != null ? message.request().url() : "(no request)";
+    }
+
+    // Decodes only the pair being looked at, off the EDT since events can be many MB
+    private void showEntry(int row) {
+        long generation = ++entryGeneration;
+        if (entryTask != null) {
+            entryTask.cancel(true);
+            entryTask = null;
+        }
+        if (row < 0 || row >= diffModel.getRowCount()) {
+            fieldsLabel.setText(" ");
+            leftArea.setText("");
+            rightArea.setText("");
+            return;
+        }
+        SSEEventIndex leftEvents = diffModel.leftEvents;
+        SSEEventIndex rightEvents = diffModel.rightEvents;
+        int leftRow = diffModel.leftRow(row);
+        int rightRow = diffModel.rightRow(row);
+        SSEDiff.Kind kind = diffModel.kind(row);
+        fieldsLabel.setText(kind.getDisplayName());
+        entryTask = diffExecutor.submit(() -> {
+            try {
+                SSEEvent left = leftRow >= 0 ? leftEvents.decode(leftRow) : null;
+                SSEEvent right = rightRow >= 0 ? rightEvents.decode(rightRow) : null;
+                String fields = describeFields(kind, left, right);
+                String leftText = format(left);
+                String rightText = format(right);
+                SwingUtilities.invokeLater(() -> {
+                    if (generation != entryGeneration) {
+                        return;
+                    }
+                    entryTask = null;
+                    fieldsLabel.setText(fields);
+                    leftArea.setText(leftText);
+                    rightArea.setText(rightText);
+                    leftArea.setCaretPosition(0);
+                    rightArea.setCaretPosition(0);
+                });
+            } catch (Exception e) {
+                montoyaApi.logging().logToError("Error decoding compared SSE events: " + e.getMessage());
+            }
+        });
+    }
+
+    // The kind of a pair and the fields that differ
+    private static String describeFields(SSEDiff.Kind kind, SSEEvent left, SSEEvent right) {
+        List<String> differing = new ArrayList<>();
+        if (left != null && right != null) {
+            if (!Objects.equals(left.event, right.event)) {
+                differing.add("event");
+            }
+            if (!Objects.equals(left.id, right.id)) {
+                differing.add("id");
+            }
+            if (!Objects.equals(left.retry, right.retry)) {
+                differing.add("retry");
+            }
+            if (!Objects.equals(left.data, right.data)) {
+                differing.add("data");
+            }
+        }
+        return kind.getDisplayName() + (differing.isEmpty() ? "" : " \u2013 differs in " +
+            String.join(", ", differing));
+    }
+
+    private static String format(SSEEvent event) {
+        if (event == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder();
+        out.append("event: ").append(event.event != null ? event.event : "N/A").append('\n');
+        out.append("id: ").append(event.id != null ? event.id : "N/A").append('\n');
+        out.append("retry: ").append(event.retry != null ? event.retry : "N/A").append("\n\n");
+        out.append(event.data != null ? event.data : "");
+        return out.toString();
+    }
+
+    private static class DiffTableModel extends AbstractTableModel {
+        private final String[] columnNames = {"Status", "Left #", "Right #", "Type", "Left Data", "Right Data"};
+        private SSEEventIndex leftEvents = SSEEventIndex.empty();
+        private SSEEventIndex rightEvents = SSEEventIndex.empty();
+        private SSEDiff.Result result;
+        // Entries shown, all of them unless equal events are hidden
+        private int[] entries = new int[0];
+        private boolean hideEqual;
+
+        void setResult(SSEEventIndex leftEvents, SSEEventIndex rightEvents, SSEDiff.Result result) {
+            this.leftEvents = leftEvents;
+            this.rightEvents = rightEvents;
+            this.result = result;
+            refresh();
+        }
+
+        void setHideEqual(boolean hideEqual) {
+            this.hideEqual = hideEqual;
+            refresh();
+        }
+
+        private void refresh() {
+            int count = 0;
+            int[] shown = new int[result != null ? result.size() : 0];
+            for (int entry = 0; entry < shown.length; entry++) {
+                if (!hideEqual || result.kind(entry) != SSEDiff.Kind.EQUAL) {
+                    shown[count++] = entry;
+                }
+            }
+            entries = Arrays.copyOf(shown, count);
+            fireTableDataChanged();
+        }
+
+        SSEDiff.Kind kind(int row) {
+            return result.kind(entries[row]);
+        }
+
+        int leftRow(int row) {
+            return result.leftRow(entries[row]);
+        }
+
+        int rightRow(int row) {
+            return result.rightRow(entries[row]);
+        }
+
+        @Override
+        public int getRowCount() {
+            return entries.length;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            int entry = entries[rowIndex];
+            int leftRow = result.leftRow(entry);
+            int rightRow = result.rightRow(entry);
+            // Read from the index columns; full events are only decoded for the selected pair
+            switch (columnIndex) {
+                case 0: return result.kind(entry).getDisplayName();
+                case 1: return leftRow >= 0 ? String.valueOf(leftRow + 1) : "";
+                case 2: return rightRow >= 0 ? String.valueOf(rightRow + 1) : "";
+                case 3: {
+                    String type = leftRow >= 0 ? leftEvents.eventType(leftRow) : rightEvents.eventType(rightRow);
+                    return type != null ? type : "message";
+                }
+                case 4: return leftRow >= 0 ? leftEvents.dataPreview(leftRow, 80) : "";
+                case 5: return rightRow >= 0 ? rightEvents.dataPreview(rightRow, 80) : "";
+                default: return "";
+            }
+        }
+    }
+}
@@ -0,0 +1,418 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.SwingUtilities;
+import javax.swing.table.TableModel;
+
+/**
+ * Row sorter of the events table. Instead of comparing cell values, each
+ * sorted column is turned into one primitive key per row, and the rows are
+ * merge-sorted by those keys. For large tables keys and permutation are
+ * computed on a background executor and swapped in on the EDT, the previous
+ * order staying visible until then. Rows are filtered by a {@link BitSet}
+ * of model rows.
+ */
+public class SSEEventSorter<M extends TableModel> extends RowSorter<M> {
+
+    /**
+     * Sort keys of a fixed set of rows, captured on the EDT and read on a
+     * background thread.
+     */
+    public interface KeySource {
+        int rowCount();
+
+        /** One key per row, smaller sorting first; called off the EDT. */
+        long[] keys(int column);
+    }
+
+    private static final int MAX_SORT_KEYS = 3;
+    // Tables up to this many rows are sorted right on the EDT
+    private static final int SYNC_SORT_LIMIT = 5000;
+
+    private final M model;
+    private final ExecutorService executor;
+    private final Supplier<KeySource> keySource;
+    private final IntPredicate sortable;
+    private List<SortKey> sortKeys = List.of();
+    private BitSet filter;
+    // Model rows in sorted order; rows added since are shown after them.
+    // Null when unsorted
+    private int[] order;
+    // Null while every model row is shown in model order
+    private int[] viewToModel;
+    private int[] modelToView;
+    // Only touched on the EDT
+    private long sortGeneration;
+    private Future<?> sortTask;
+    private boolean sortPending;
+
+    public SSEEventSorter(M model, ExecutorService executor, Supplier<KeySource> keySource, IntPredicate sortable) {
+        this.model = model;
+        this.executor = executor;
+        this.keySource = keySource;
+        this.sortable = sortable;
+    }
+
+    /** Shows only the model rows set in {@code filter}, or all rows when it is null. */
+    public void setFilter(BitSet filter) {
+        int[] previous = currentViewToModel();
+        this.filter = filter;
+        rebuildView();
+        fireRowSorterChanged(previous);
+    }
+
+    public BitSet getFilter() {
+        return filter;
+    }
+
+    /**
+     * Ranks of {@code values} in table order: numbers numerically and first,
+     * then text. Equal values get equal ranks; each distinct value is parsed
+     * once.
+     */
+    public static long[] rank(String[] values) {
+        Map<String, Integer> distinct = new HashMap<>();
+        int[] slots = new int[values.length];
+        List<String> names = new ArrayList<>();
+        for (int row = 0; row < values.length; row++) {
+            Integer slot = distinct.get(values[row]);
+            if (slot == null) {
+                slot = names.size();
+                distinct.put(values[row], slot);
+                names.add(values[row]);
+            }
+            slots[row] = slot;
+        }
+        Double[] numbers = new Double[names.size()];
+        Integer[] byValue = new Integer[names.size()];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = parseNumber(names.get(i));
+            byValue[i] = i;
+        }
+        Arrays.sort(byValue, (a, b) -> {
+            if (numbers[a] != null && numbers[b] != null) {
+                return Double.compare(numbers[a], numbers[b]);
+            }
+            if (numbers[a] != null || numbers[b] != null) {
+                return numbers[a] != null ? -1 : 1;
+            }
+            return names.get(a).compareTo(names.get(b));
+        });
+        long[] ranks = new long[numbers.length];
+        for (int i = 0; i < byValue.length; i++) {
+            ranks[byValue[i]] = i;
+        }
+        long[] keys = new long[values.length];
+        for (int row = 0; row < values.length; row++) {
+            keys[row] = ranks[slots[row]];
+        }
+        return keys;
+    }
+
+    private static Double parseNumber(String value) {
+        if (value.isEmpty() || !(Character.isDigit(value.charAt(0)) || value.charAt(0) == '-')) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public M getModel() {
+        return model;
+    }
+
+    // Like DefaultRowSorter: the clicked column becomes the primary key,
+    // clicking it again flips its direction
+    @Override
+    public void toggleSortOrder(int column) {
+        if (!sortable.test(column)) {
+            return;
+        }
+        List<SortKey> keys = new ArrayList<>(sortKeys);
+        SortOrder sortOrder = SortOrder.ASCENDING;
+        for (int i = 0; i < keys.size(); i++) {
+            if (keys.get(i).getColumn() == column) {
+                if (i == 0) {
+                    sortOrder = keys.get(i).getSortOrder() == SortOrder.ASCENDING
+                        ? SortOrder.DESCENDING : SortOrder.ASCENDING;
+                }
+                keys.remove(i);
+                break;
+            }
+        }
+        keys.add(0, new SortKey(column, sortOrder));
+        setSortKeys(keys.subList(0, Math.min(MAX_SORT_KEYS, keys.size())));
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (viewToModel == null) {
+            checkRow(index, model.getRowCount());
+            return index;
+        }
+        checkRow(index, viewToModel.length);
+        return viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (modelToView == null) {
+            checkRow(index, model.getRowCount());
+            return index;
+        }
+        return index >= 0 && index < modelToView.length ? modelToView[index] : -1;
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> copy = new ArrayList<>();
+        if (keys != null) {
+            for (SortKey key : keys) {
+                if (key.getSortOrder() != SortOrder.UNSORTED && sortable.test(key.getColumn())) {
+                    copy.add(key);
+                }
+            }
+        }
+        if (copy.equals(sortKeys)) {
+            return;
+        }
+        sortKeys = List.copyOf(copy);
+        fireSortOrderChanged();
+        sort();
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return viewToModel != null ? viewToModel.length : model.getRowCount();
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    // Columns were added or removed; keys may no longer refer to the same values
+    @Override
+    public void modelStructureChanged() {
+        cancelSort();
+        boolean sorted = !sortKeys.isEmpty();
+        sortKeys = List.of();
+        order = null;
+        rebuildView();
+        if (sorted) {
+            fireSortOrderChanged();
+        }
+    }
+
+    @Override
+    public void allRowsChanged() {
+        cancelSort();
+        order = null;
+        rebuildView();
+        requestSort();
+    }
+
+    // The model only ever appends rows
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        rebuildView();
+        requestSort();
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        allRowsChanged();
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+    }
+
+    // Called while the table handles a model event, so the sort runs after it
+    private void requestSort() {
+        if (sortKeys.isEmpty() || sortPending) {
+            return;
+        }
+        sortPending = true;
+        SwingUtilities.invokeLater(() -> {
+            if (sortPending && sortTask == null) {
+                sort();
+            }
+        });
+    }
+
+    private void sort() {
+        sortPending = false;
+        cancelSort();
+        if (sortKeys.isEmpty()) {
+            if (order != null) {
+                int[] previous = currentViewToModel();
+                order = null;
+                rebuildView();
+                fireRowSorterChanged(previous);
+            }
+            return;
+        }
+        long generation = ++sortGeneration;
+        KeySource source = keySource.get();
+        List<SortKey> keys = sortKeys;
+        if (source.rowCount() <= SYNC_SORT_LIMIT) {
+            applyOrder(computeOrder(source, keys));
+            return;
+        }
+        sortTask = executor.submit(() -> {
+            int[] sorted = computeOrder(source, keys);
+            if (sorted == null) {
+                return; // Superseded by a newer sort
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (generation == sortGeneration) {
+                    sortTask = null;
+                    applyOrder(sorted);
+                }
+            });
+        });
+    }
+
+    private void cancelSort() {
+        sortGeneration++;
+        if (sortTask != null) {
+            sortTask.cancel(true);
+            sortTask = null;
+        }
+    }
+
+    private void applyOrder(int[] sorted) {
+        int[] previous = currentViewToModel();
+        order = sorted;
+        rebuildView();
+        fireRowSorterChanged(previous);
+        // Rows added while sorting are shown last until they are sorted in too
+        if (sortPending || sorted.length < model.getRowCount()) {
+            sortPending = false;
+            requestSort();
+        }
+    }
+
+    // Null when interrupted
+    private static int[] computeOrder(KeySource source, List<SortKey> sortKeys) {
+        int rows = source.rowCount();
+        long[][] keys = new long[sortKeys.size()][];
+        int[] directions = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = source.keys(sortKeys.get(i).getColumn());
+            directions[i] = sortKeys.get(i).getSortOrder() == SortOrder.DESCENDING ? -1 : 1;
+            if (keys[i] == null || Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+        }
+        // Bottom-up merge sort of row numbers; stable, so ties stay in model order
+        int[] from = new int[rows];
+        int[] to = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            from[row] = row;
+        }
+        for (int width = 1; width < rows; width *= 2) {
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            for (int start = 0; start < rows; start += 2 * width) {
+                int middle = Math.min(start + width, rows);
+                int end = Math.min(start + 2 * width, rows);
+                int left = start;
+                int right = middle;
+                for (int out = start; out < end; out++) {
+                    if (left < middle && (right >= end || compare(keys, directions, from[left], from[right]) <= 0)) {
+                        to[out] = from[left++];
+                    } else {
+                        to[out] = from[right++];
+                    }
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        return from;
+    }
+
+    private static int compare(long[][] keys, int[] directions, int a, int b) {
+        for (int i = 0; i < keys.length; i++) {
+            int result = Long.compare(keys[i][a], keys[i][b]);
+            if (result != 0) {
+                return result * directions[i];
+            }
+        }
+        return 0;
+    }
+
+    private void rebuildView() {
+        int rows = model.getRowCount();
+        if (order == null && filter == null) {
+            viewToModel = null;
+            modelToView = null;
+            return;
+        }
+        int[] view = new int[rows];
+        int[] positions = new int[rows];
+        Arrays.fill(positions, -1);
+        int count = 0;
+        int sorted = order != null ? Math.min(order.length, rows) : 0;
+        for (int i = 0; i < sorted; i++) {
+            count = show(order[i], view, positions, count);
+        }
+        for (int row = sorted; row < rows; row++) {
+            count = show(row, view, positions, count);
+        }
+        viewToModel = count == rows ? view : Arrays.copyOf(view, count);
+        modelToView = positions;
+    }
+
+    private int show(int row, int[] view, int[] positions, int count) {
+        if (filter == null || filter.get(row)) {
+            positions[row] = count;
+            view[count++] = row;
+        }
+        return count;
+    }
+
+    private int[] currentViewToModel() {
+        if (viewToModel != null) {
+            return viewToModel.clone();
+        }
+        int[] identity = new int[model.getRowCount()];
+        for (int row = 0; row < identity.length; row++) {
+            identity[row] = row;
+        }
+        return identity;
+    }
+
+    private static void checkRow(int index, int rows) {
+        if (index < 0 || index >= rows) {
+            throw new IndexOutOfBoundsException("Invalid index " + index + ", rows " + rows);
+        }
+    }
+}
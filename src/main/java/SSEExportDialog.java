@@ -0,0 +1,64 @@
+import java.awt.Component;
+import java.io.File;
+import java.nio.file.Path;
+
+import javax.swing.JFileChooser;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+/** Save dialog picking the file and format of an {@link SSEExporter} export. */
+public class SSEExportDialog {
+
+    /** A file picked by {@link #chooseTarget} and the format of its filter. */
+    public static class Target {
+        private final Path path;
+        private final SSEExporter.Format format;
+
+        Target(Path path, SSEExporter.Format format) {
+            this.path = path;
+            this.format = format;
+        }
+
+        public Path path() {
+            return path;
+        }
+
+        public SSEExporter.Format format() {
+            return format;
+        }
+    }
+
+    private SSEExportDialog() {
+    }
+
+    /**
+     * Asks for an export file; the format follows the chosen filter. Returns
+     * null when the dialog is cancelled.
+     */
+    public static Target chooseTarget(Component parent, String title) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle(title);
+        chooser.setAcceptAllFileFilterUsed(false);
+        SSEExporter.Format[] formats = SSEExporter.Format.values();
+        FileNameExtensionFilter[] filters = new FileNameExtensionFilter[formats.length];
+        for (SSEExporter.Format format : formats) {
+            filters[format.ordinal()] = new FileNameExtensionFilter(
+                format.getDisplayName() + " (*." + format.extension() + ")", format.extension());
+            chooser.addChoosableFileFilter(filters[format.ordinal()]);
+        }
+        chooser.setFileFilter(filters[0]);
+        if (chooser.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION) {
+            return null;
+        }
+        SSEExporter.Format format = SSEExporter.Format.NDJSON;
+        for (SSEExporter.Format candidate : formats) {
+            if (chooser.getFileFilter() == filters[candidate.ordinal()]) {
+                format = candidate;
+            }
+        }
+        File file = chooser.getSelectedFile();
+        if (!file.getName().contains(".")) {
+            file = new File(file.getParentFile(), file.getName() + "." + format.extension());
+        }
+        return new Target(file.toPath(), format);
+    }
+}
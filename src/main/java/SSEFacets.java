@@ -0,0 +1,215 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rows of an event index grouped by event type, data format and data size,
+ * one bitmap per value. Filled row by row as the parser dispatches events,
+ * or in a single pass over the index columns, so hiding any combination of
+ * values is a few word-wise bitmap operations.
+ */
+public class SSEFacets {
+
+    public enum Group {
+        TYPE("Event type"),
+        FORMAT("Format"),
+        SIZE("Data size");
+
+        private final String displayName;
+
+        Group(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    // Upper bounds of the size buckets; the last bucket is open
+    private static final int[] SIZE_LIMITS = {64, 1024, 16 * 1024, 256 * 1024};
+    private static final String[] SIZE_LABELS = {
+        "< 64 B", "64 B \u2013 1 KB", "1 \u2013 16 KB", "16 \u2013 256 KB", "\u2265 256 KB"
+    };
+    private static final FormatType[] FORMATS = FormatType.values();
+    private static final int CHECK_INTERVAL = 4096;
+
+    /** One facet value and the rows having it. */
+    public static class Value {
+        private final String label;
+        private final BitSet rows;
+        private final int count;
+
+        Value(String label, BitSet rows) {
+            this.label = label;
+            this.rows = rows;
+            this.count = rows.cardinality();
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public int count() {
+            return count;
+        }
+    }
+
+    /**
+     * Collects the facets of the rows an {@link SSEEventIndex.Builder} adds,
+     * fed from the same parser callback, so no pass over the finished index
+     * is needed.
+     */
+    public static class Builder {
+        // Indexed by type dictionary code
+        private final List<BitSet> types = new ArrayList<>();
+        private final BitSet[] formats = new BitSet[FORMATS.length];
+        private final BitSet[] sizes = new BitSet[SIZE_LABELS.length];
+        private int size;
+
+        /** Adds the row {@code index} has just added. */
+        public void add(SSEEventIndex.Builder index) {
+            int row = index.size() - 1;
+            int code = index.typeCode(row);
+            while (types.size() <= code) {
+                types.add(null);
+            }
+            if (types.get(code) == null) {
+                types.set(code, new BitSet());
+            }
+            types.get(code).set(row);
+            set(formats, index.format(row).ordinal(), row);
+            set(sizes, sizeBucket(index.dataLength(row)), row);
+            size = row + 1;
+        }
+
+        /** The facets of the rows added; {@code index} is the snapshot they were added to. */
+        public SSEFacets build(SSEEventIndex index) {
+            Map<String, BitSet> typeRows = new HashMap<>();
+            for (int code = 0; code < types.size(); code++) {
+                if (types.get(code) != null) {
+                    String type = index.typeName(code);
+                    typeRows.merge(type != null ? type : "N/A", types.get(code), (a, b) -> {
+                        a.or(b);
+                        return a;
+                    });
+                }
+            }
+            return SSEFacets.build(size, typeRows, formats, sizes);
+        }
+    }
+
+    private final int size;
+    private final Map<Group, List<Value>> values = new EnumMap<>(Group.class);
+
+    private SSEFacets(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Groups the rows of a finished {@code index} in one pass over its
+     * columns; returns null when the thread is interrupted.
+     */
+    public static SSEFacets of(SSEEventIndex index) {
+        int size = index.size();
+        Map<String, BitSet> types = new HashMap<>();
+        BitSet[] formats = new BitSet[FORMATS.length];
+        BitSet[] sizes = new BitSet[SIZE_LABELS.length];
+        for (int row = 0; row < size; row++) {
+            if (row % CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            String type = index.eventType(row);
+            types.computeIfAbsent(type != null ? type : "N/A", k -> new BitSet(size)).set(row);
+            set(formats, index.format(row).ordinal(), row);
+            set(sizes, sizeBucket(index.dataLength(row)), row);
+        }
+        return build(size, types, formats, sizes);
+    }
+
+    private static void set(BitSet[] bitsets, int value, int row) {
+        if (bitsets[value] == null) {
+            bitsets[value] = new BitSet();
+        }
+        bitsets[value].set(row);
+    }
+
+    private static SSEFacets build(int size, Map<String, BitSet> types, BitSet[] formats, BitSet[] sizes) {
+        SSEFacets facets = new SSEFacets(size);
+        List<Value> typeValues = new ArrayList<>();
+        for (Map.Entry<String, BitSet> entry : types.entrySet()) {
+            typeValues.add(new Value(entry.getKey(), entry.getValue()));
+        }
+        // Most frequent first, which is where heartbeat types end up
+        typeValues.sort((a, b) -> a.count != b.count ? Integer.compare(b.count, a.count) : a.label.compareTo(b.label));
+        facets.values.put(Group.TYPE, typeValues);
+        List<Value> formatValues = new ArrayList<>();
+        for (FormatType format : FORMATS) {
+            if (formats[format.ordinal()] != null) {
+                formatValues.add(new Value(format.getDisplayName(), formats[format.ordinal()]));
+            }
+        }
+        facets.values.put(Group.FORMAT, formatValues);
+        List<Value> sizeValues = new ArrayList<>();
+        for (int bucket = 0; bucket < sizes.length; bucket++) {
+            if (sizes[bucket] != null) {
+                sizeValues.add(new Value(SIZE_LABELS[bucket], sizes[bucket]));
+            }
+        }
+        facets.values.put(Group.SIZE, sizeValues);
+        return facets;
+    }
+
+    public List<Value> values(Group group) {
+        return values.get(group);
+    }
+
+    /** Approximate heap retained by the bitmaps. */
+    public long retainedBytes() {
+        long bytes = 0;
+        for (List<Value> group : values.values()) {
+            for (Value value : group) {
+                bytes += value.rows.size() / 8;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Rows having none of the hidden values, by group; null when no value
+     * present in this index is hidden. Each row has exactly one value per
+     * group, so this is all rows minus the union of the hidden values.
+     */
+    public BitSet visibleRows(Map<Group, Set<String>> hidden) {
+        BitSet visible = null;
+        for (Map.Entry<Group, List<Value>> group : values.entrySet()) {
+            Set<String> hiddenLabels = hidden.get(group.getKey());
+            if (hiddenLabels == null || hiddenLabels.isEmpty()) {
+                continue;
+            }
+            for (Value value : group.getValue()) {
+                if (hiddenLabels.contains(value.label)) {
+                    if (visible == null) {
+                        visible = new BitSet(size);
+                        visible.set(0, size);
+                    }
+                    visible.andNot(value.rows);
+                }
+            }
+        }
+        return visible;
+    }
+
+    private static int sizeBucket(int length) {
+        for (int bucket = 0; bucket < SIZE_LIMITS.length; bucket++) {
+            if (length < SIZE_LIMITS[bucket]) {
+                return bucket;
+            }
+        }
+        return SIZE_LIMITS.length;
+    }
+}
@@ -0,0 +1,188 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Latency histograms and counters of the editor's processing stages, cheap
+ * enough to stay on all the time: recording a sample costs two
+ * {@link System#nanoTime} calls and a few uncontended atomic adds. Samples
+ * go into log-linear buckets (8 per power of two, so percentiles are within
+ * 12.5%), and a sample over the slow threshold is logged.
+ */
+public class SSEMetrics {
+
+    public enum Stage {
+        BODY("Body read"),
+        CACHE("Cache lookup"),
+        PARSE("Parse + detect"),
+        DECODE("Row decode"),
+        PROJECTION("Projection"),
+        SEARCH("Search"),
+        RENDER("Detail render"),
+        EDT("EDT update");
+
+        private final String displayName;
+        // For log lines, so slow samples don't lower-case on every record
+        private final String logName;
+
+        Stage(String displayName) {
+            this.displayName = displayName;
+            this.logName = displayName.toLowerCase(Locale.ROOT);
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    // Sub-buckets per power of two, as a bit count
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final Histogram[] histograms = new Histogram[STAGES.length];
+    private final LongAdder bytesParsed = new LongAdder();
+    private final LongAdder eventsParsed = new LongAdder();
+    private final Consumer<String> slowLog;
+    private volatile long slowThresholdNanos;
+    private volatile long since = System.currentTimeMillis();
+
+    /** {@code slowLog} receives a line for each sample over the slow threshold. */
+    public SSEMetrics(Consumer<String> slowLog) {
+        this.slowLog = slowLog;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Histogram();
+        }
+    }
+
+    /** Samples slower than this are logged; 0 turns logging off. */
+    public void setSlowThresholdMs(int thresholdMs) {
+        slowThresholdNanos = thresholdMs * 1_000_000L;
+    }
+
+    /** Records the time since {@code startNanos}, taken from {@link System#nanoTime}. */
+    public void record(Stage stage, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        histograms[stage.ordinal()].add(elapsed);
+        long threshold = slowThresholdNanos;
+        if (threshold > 0 && elapsed > threshold) {
+            slowLog.accept(String.format("Slow SSE %s: %.1f ms", stage.logName,
+                elapsed / 1e6));
+        }
+    }
+
+    /** Counts a body parsed by the editor, for the throughput figures. */
+    public void countParsed(long bytes, long events) {
+        bytesParsed.add(bytes);
+        eventsParsed.add(events);
+    }
+
+    public void reset() {
+        for (Histogram histogram : histograms) {
+            histogram.reset();
+        }
+        bytesParsed.reset();
+        eventsParsed.reset();
+        since = System.currentTimeMillis();
+    }
+
+    /** A plain-text table of all stages and counters. */
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-16s %10s %10s %10s %10s %12s%n", "Stage", "Count", "p50", "p99", "Max",
+            "Total"));
+        for (Stage stage : STAGES) {
+            Histogram histogram = histograms[stage.ordinal()];
+            long count = histogram.count.sum();
+            out.append(String.format("%-16s %10d %10s %10s %10s %12s%n", stage.getDisplayName(), count,
+                count > 0 ? formatNanos(histogram.percentile(0.50)) : "-",
+                count > 0 ? formatNanos(histogram.percentile(0.99)) : "-",
+                count > 0 ? formatNanos(histogram.max.get()) : "-",
+                formatNanos(histogram.total.sum())));
+        }
+        long bytes = bytesParsed.sum();
+        long events = eventsParsed.sum();
+        double parseSeconds = histograms[Stage.PARSE.ordinal()].total.sum() / 1e9;
+        out.append(String.format("%nParsed: %d events in %.1f MB", events, bytes / (1024.0 * 1024.0)));
+        if (parseSeconds > 0) {
+            out.append(String.format(" (%.0f events/s, %.1f MB/s)", events / parseSeconds,
+                bytes / (1024.0 * 1024.0) / parseSeconds));
+        }
+        out.append(String.format("%nTime on the EDT: %s%n", formatNanos(histograms[Stage.EDT.ordinal()].total.sum())));
+        out.append(String.format("Since %tT%n", since));
+        return out.toString();
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000_000) {
+            return String.format("%.1f us", nanos / 1e3);
+        }
+        if (nanos < 1_000_000_000) {
+            return String.format("%.1f ms", nanos / 1e6);
+        }
+        return String.format("%.2f s", nanos / 1e9);
+    }
+
+    // Values below SUB_BUCKETS get a bucket each; above, each power of two
+    // is split into SUB_BUCKETS equal parts
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(0, value);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long bucketHigh(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long width = 1L << (exponent - SUB_BITS);
+        return ((SUB_BUCKETS + bucket % SUB_BUCKETS) * width) + width - 1;
+    }
+
+    private static class Histogram {
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        final LongAdder count = new LongAdder();
+        final LongAdder total = new LongAdder();
+        final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        void add(long nanos) {
+            buckets.incrementAndGet(bucket(nanos));
+            count.increment();
+            total.add(nanos);
+            max.accumulate(nanos);
+        }
+
+        // Upper bound of the bucket holding the given fraction of samples
+        long percentile(double fraction) {
+            long samples = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                samples += buckets.get(i);
+            }
+            long rank = (long) Math.ceil(samples * fraction);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank && seen > 0) {
+                    return Math.min(bucketHigh(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.reset();
+            total.reset();
+            max.reset();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * Process-wide cache of parsed event indexes, shared by every SSE editor so
+ * the same message viewed in Proxy, Repeater and Logger is parsed once.
+ * Entries are looked up by a cheap fingerprint of the body and confirmed by
+ * a full hash. Least recently used entries are evicted once the
+ * retained bytes exceed the budget.
+ */
+public class SSEParseCache {
+
+    // Bodies up to this size are hashed in full
+    private static final int FULL_HASH_LIMIT = 4096;
+    private static final int SAMPLE_COUNT = 64;
+    private static final int SAMPLE_SIZE = 16;
+    // Rough per-entry bookkeeping cost, so empty results still count
+    private static final long ENTRY_OVERHEAD = 96;
+
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long budgetBytes;
+    private long retainedBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public SSEParseCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    /** Returns the cached index for {@code body}, or null when it has not been parsed yet. */
+    public SSEEventIndex get(byte[] body) {
+        Entry entry = lookup(body);
+        return entry != null ? entry.index() : null;
+    }
+
+    /**
+     * Returns the cache entry for {@code body}, with the facets of its
+     * index when an editor has cached them, or null when it has not been
+     * parsed yet.
+     */
+    public Entry lookup(byte[] body) {
+        long key = fingerprint(body);
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        // Fingerprints only sample the body; confirm with a full hash
+        if (entry != null && entry.fullHash == fullHash(body)) {
+            hits.incrementAndGet();
+            return entry;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /** Caches a fully parsed index of {@code body}. */
+    public void put(byte[] body, SSEEventIndex index) {
+        put(body, index, null);
+    }
+
+    /** Caches a fully parsed index of {@code body} together with its facets, which may be null. */
+    public void put(byte[] body, SSEEventIndex index, SSEFacets facets) {
+        // Don't pin the body of responses without events
+        Entry entry = new Entry(index.isEmpty() ? SSEEventIndex.empty() : index, facets, fullHash(body));
+        if (entry.size > budgetBytes()) {
+            return;
+        }
+        long key = fingerprint(body);
+        synchronized (this) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                retainedBytes -= previous.size;
+            }
+            retainedBytes += entry.size;
+            evictToBudget();
+        }
+    }
+
+    public synchronized void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+        evictToBudget();
+    }
+
+    public synchronized long budgetBytes() {
+        return budgetBytes;
+    }
+
+    public synchronized long retainedBytes() {
+        return retainedBytes;
+    }
+
+    public synchronized int entryCount() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        retainedBytes = 0;
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+
+    public long missCount() {
+        return misses.get();
+    }
+
+    public long evictionCount() {
+        return evictions.get();
+    }
+
+    private void evictToBudget() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (retainedBytes > budgetBytes && iterator.hasNext()) {
+            retainedBytes -= iterator.next().size;
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static long fullHash(byte[] body) {
+        CRC32C crc = new CRC32C();
+        crc.update(body, 0, body.length);
+        return ((long) body.length << 32) | crc.getValue();
+    }
+
+    /**
+     * Length plus a 64-bit hash of evenly spaced samples of the body, so
+     * fingerprinting a large body touches only a few KB.
+     */
+    static long fingerprint(byte[] body) {
+        long hash = 0xcbf29ce484222325L ^ body.length;
+        if (body.length <= FULL_HASH_LIMIT) {
+            return mix(hash, body, 0, body.length);
+        }
+        long stride = (body.length - SAMPLE_SIZE) / (SAMPLE_COUNT - 1);
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            int offset = (int) (i * stride);
+            hash = mix(hash, body, offset, offset + SAMPLE_SIZE);
+        }
+        return hash;
+    }
+
+    // FNV-1a
+    private static long mix(long hash, byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            hash ^= bytes[i] & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /** A cached index and, when known, its facets. */
+    public static class Entry {
+        private final SSEEventIndex index;
+        private final SSEFacets facets;
+        private final long fullHash;
+        private final long size;
+
+        Entry(SSEEventIndex index, SSEFacets facets, long fullHash) {
+            this.index = index;
+            this.facets = facets;
+            this.fullHash = fullHash;
+            this.size = index.retainedBytes() + (facets != null ? facets.retainedBytes() : 0) + ENTRY_OVERHEAD;
+        }
+
+        public SSEEventIndex index() {
+            return index;
+        }
+
+        /** Facets of the index, or null when the entry was cached without them. */
+        public SSEFacets facets() {
+            return facets;
+        }
+    }
+}
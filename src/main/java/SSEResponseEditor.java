@@ -4,21 +4,58 @@ import java.awt.Component;
 import java.awt.Font;
 import java.awt.Toolkit;
 import java.awt.datatransfer.StringSelection;
+import java.awt.event.ActionEvent;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
+import javax.swing.AbstractAction;
+import javax.swing.BorderFactory;
+import javax.swing.Box;
+import javax.swing.BoxLayout;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
 import javax.swing.JSplitPane;
+import javax.swing.JTabbedPane;
 import javax.swing.JTable;
+import javax.swing.JTextArea;
+import javax.swing.JTextField;
 import javax.swing.JTextPane;
 import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.AbstractTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.TableCellRenderer;
-import javax.swing.text.SimpleAttributeSet;
-import javax.swing.text.StyleConstants;
-import javax.swing.text.StyledDocument;
+import javax.swing.table.TableColumnModel;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultEditorKit;
+import javax.swing.text.DefaultHighlighter;
+import javax.swing.text.Document;
+import javax.swing.text.Highlighter;
 
 import burp.api.montoya.MontoyaApi;
 import burp.api.montoya.http.message.HttpRequestResponse;
@@ -28,32 +65,103 @@ import burp.api.montoya.ui.editor.extension.ExtensionProvidedHttpResponseEditor;
 
 public class SSEResponseEditor implements ExtensionProvidedHttpResponseEditor {
     
+    // Bytes fed to the parser between cancellation checks
+    private static final int PARSE_CHUNK_SIZE = 256 * 1024;
+    private static final long PUBLISH_INTERVAL_NANOS = 100_000_000L;
+    // Events with more data than this are rendered in the background
+    private static final int SYNC_RENDER_LIMIT = 16 * 1024;
+    // Typing pause before the filter is applied
+    private static final int SEARCH_DELAY_MS = 200;
+    private static final int MAX_HIGHLIGHTS = 1000;
+    private static final Highlighter.HighlightPainter MATCH_PAINTER =
+        new DefaultHighlighter.DefaultHighlightPainter(new Color(120, 100, 20));
+    
     private final MontoyaApi montoyaApi;
-    private final SSEParser parser;
-    private final FormatDetector formatDetector;
+    private final ExecutorService parseExecutor;
+    private final ForkJoinPool workerPool;
+    private final SSEParseCache parseCache;
+    private final SSEViewerSettings settings;
+    private final SSEMetrics metrics;
     private final JPanel mainPanel;
-    private final JTable eventsTable;
-    private final JTextPane detailPane;
-    private final SSETableModel tableModel;
+    // Built the first time the tab is shown; null until then
+    private JTable eventsTable;
+    private JTextPane detailPane;
+    private JLabel detailStatusLabel;
+    private JPanel detailToolbar;
+    private JLabel statusLabel;
+    private SSETableModel tableModel;
+    private SSEEventSorter<SSETableModel> rowSorter;
+    private JTextField searchField;
+    private JCheckBox regexCheckBox;
+    private JLabel searchStatusLabel;
+    private JPanel facetPanel;
+    private JTabbedPane detailTabs;
+    private JPanel reassembledPanel;
+    private JTextArea messageArea;
+    private JTextArea summaryArea;
     private HttpRequestResponse currentRequestResponse;
-    private List<SSEEvent> currentEvents;
+    private SSEEventIndex currentIndex = SSEEventIndex.empty();
+    // Only touched on the EDT
+    private long parseGeneration;
+    private Future<?> parseTask;
+    private long detailGeneration;
+    private Future<?> detailTask;
+    // Event currently in the detail pane, possibly only partly rendered
+    private EventDetailRenderer.Detail currentDetail;
+    private boolean pageLoadPending;
+    // Search index of currentIndex, built on the first plain text query
+    private SSESearchIndex searchIndex;
+    private long searchGeneration;
+    private Future<?> searchTask;
+    // Highlighted in the detail pane, null when no filter is active
+    private Pattern matchPattern;
+    private BitSet searchMatches;
+    // Facet values unticked by the user; kept when another response is shown
+    private SSEFacets facets;
+    private final Map<SSEFacets.Group, Set<String>> hiddenFacets = new EnumMap<>(SSEFacets.Group.class);
+    private final List<Object> matchHighlights = new ArrayList<>();
+    // Reassembly of the current response, fed incrementally while the
+    // Reassembled tab is showing
+    private StreamReassembler reassembler;
+    private Future<?> reassemblyTask;
+    private boolean reassemblyPending;
+    private int shownMessageLength;
 
-    public SSEResponseEditor(MontoyaApi montoyaApi) {
+    public SSEResponseEditor(MontoyaApi montoyaApi, ExecutorService parseExecutor, ForkJoinPool workerPool,
+                             SSEParseCache parseCache, SSEViewerSettings settings, SSEMetrics metrics) {
         this.montoyaApi = montoyaApi;
-        this.parser = new SSEParser();
-        this.formatDetector = new FormatDetector();
+        this.parseExecutor = parseExecutor;
+        this.workerPool = workerPool;
+        this.parseCache = parseCache;
+        this.settings = settings;
+        this.metrics = metrics;
         
+        // Burp creates an editor for every message viewer, most of which never
+        // show this tab, so the components are only built once it is shown
+        mainPanel = new JPanel(new BorderLayout());
+        mainPanel.addHierarchyListener(new HierarchyListener() {
+            @Override
+            public void hierarchyChanged(HierarchyEvent e) {
+                if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && mainPanel.isShowing()) {
+                    mainPanel.removeHierarchyListener(this);
+                    buildUi();
+                    mainPanel.revalidate();
+                    setRequestResponse(currentRequestResponse);
+                }
+            }
+        });
+    }
+
+    private void buildUi() {
         // Get Burp's font
         Font burpFont = montoyaApi.userInterface().currentEditorFont();
         
-        // Create main panel with split pane
-        mainPanel = new JPanel(new BorderLayout());
-        
         // Create table model and table
         tableModel = new SSETableModel();
         eventsTable = new JTable(tableModel);
         eventsTable.setFont(burpFont);
-        eventsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // Several rows can be selected for export; the detail pane shows the first
+        eventsTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         eventsTable.setRowHeight(30);
         eventsTable.setBackground(new Color(40, 40, 40));
         eventsTable.setForeground(new Color(200, 200, 200));
@@ -62,31 +170,22 @@ public class SSEResponseEditor implements ExtensionProvidedHttpResponseEditor {
         eventsTable.getTableHeader().setForeground(new Color(220, 220, 220));
         eventsTable.getTableHeader().setFont(burpFont.deriveFont(Font.BOLD));
         
-        // Set column widths
-        eventsTable.getColumnModel().getColumn(0).setPreferredWidth(60);  // Event #
-        eventsTable.getColumnModel().getColumn(1).setPreferredWidth(120); // Type
-        eventsTable.getColumnModel().getColumn(2).setPreferredWidth(80);  // ID
-        eventsTable.getColumnModel().getColumn(3).setPreferredWidth(80);  // Format
-        eventsTable.getColumnModel().getColumn(4).setPreferredWidth(300); // Preview
-        eventsTable.getColumnModel().getColumn(5).setPreferredWidth(80);  // Copy button
-        
-        // Custom renderer for all text columns
-        DefaultTableCellRenderer centerRenderer = new DefaultTableCellRenderer();
-        centerRenderer.setHorizontalAlignment(DefaultTableCellRenderer.CENTER);
-        centerRenderer.setBackground(new Color(40, 40, 40));
-        centerRenderer.setForeground(new Color(200, 200, 200));
-        
-        eventsTable.getColumnModel().getColumn(0).setCellRenderer(centerRenderer);
-        eventsTable.getColumnModel().getColumn(1).setCellRenderer(centerRenderer);
-        eventsTable.getColumnModel().getColumn(2).setCellRenderer(centerRenderer);
-        eventsTable.getColumnModel().getColumn(3).setCellRenderer(centerRenderer);
-        
-        // Button renderer and editor for copy column
-        eventsTable.getColumnModel().getColumn(5).setCellRenderer(new ButtonRenderer());
-        eventsTable.getColumnModel().getColumn(5).setCellEditor(new ButtonEditor());
+        // Sorted by precomputed keys, off the EDT for large responses
+        rowSorter = new SSEEventSorter<>(tableModel, parseExecutor, tableModel::keySource, tableModel::isSortable);
+        eventsTable.setRowSorter(rowSorter);
+        tableModel.setProjections(compileProjections(settings.projectionPaths()));
+        configureColumns();
         
         JScrollPane tableScroll = new JScrollPane(eventsTable);
         
+        // Facet sidebar: event types, formats and size buckets of the parsed response
+        facetPanel = new JPanel();
+        facetPanel.setLayout(new BoxLayout(facetPanel, BoxLayout.Y_AXIS));
+        facetPanel.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+        JSplitPane tableSplit = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, new JScrollPane(facetPanel), tableScroll);
+        tableSplit.setDividerLocation(180);
+        tableSplit.setOneTouchExpandable(true);
+        
         // Create detail pane
         detailPane = new JTextPane();
         detailPane.setEditable(false);
@@ -95,24 +194,276 @@ public class SSEResponseEditor implements ExtensionProvidedHttpResponseEditor {
         detailPane.setForeground(new Color(200, 200, 200));
         detailPane.setCaretColor(new Color(200, 200, 200));
         
+        // Copy includes the part of a large event that is not rendered yet
+        detailPane.getActionMap().put(DefaultEditorKit.copyAction, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                String selected = selectedDetailText();
+                if (selected != null) {
+                    StringSelection selection = new StringSelection(selected);
+                    Toolkit.getDefaultToolkit().getSystemClipboard().setContents(selection, selection);
+                }
+            }
+        });
+        
         JScrollPane detailScroll = new JScrollPane(detailPane);
         
+        // Load the next page of a large event when scrolled near the bottom
+        detailScroll.getVerticalScrollBar().addAdjustmentListener(e -> {
+            JScrollBar bar = (JScrollBar) e.getAdjustable();
+            if (currentDetail != null && !currentDetail.isComplete() && !pageLoadPending &&
+                bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - bar.getVisibleAmount()) {
+                pageLoadPending = true;
+                SwingUtilities.invokeLater(() -> {
+                    pageLoadPending = false;
+                    appendDetailPage(false);
+                });
+            }
+        });
+        
+        // Partial render notice with "Render all" action
+        detailStatusLabel = new JLabel();
+        detailStatusLabel.setFont(burpFont);
+        JButton renderAllButton = new JButton("Render all");
+        renderAllButton.addActionListener(e -> appendDetailPage(true));
+        detailToolbar = new JPanel(new BorderLayout());
+        detailToolbar.setBorder(BorderFactory.createEmptyBorder(2, 6, 2, 6));
+        detailToolbar.add(detailStatusLabel, BorderLayout.CENTER);
+        detailToolbar.add(renderAllButton, BorderLayout.EAST);
+        detailToolbar.setVisible(false);
+        
+        JPanel detailPanel = new JPanel(new BorderLayout());
+        detailPanel.add(detailToolbar, BorderLayout.NORTH);
+        detailPanel.add(detailScroll, BorderLayout.CENTER);
+        
         // Add selection listener to show details
         eventsTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
                 int row = eventsTable.getSelectedRow();
-                if (row >= 0 && currentEvents != null && row < currentEvents.size()) {
-                    showEventDetail(currentEvents.get(row));
+                if (row >= 0 && row < eventsTable.getRowCount()) {
+                    showEventDetail(eventsTable.convertRowIndexToModel(row));
                 }
             }
         });
         
+        // Reassembled LLM output: message text, then tool calls and usage
+        messageArea = new JTextArea();
+        messageArea.setLineWrap(true);
+        messageArea.setWrapStyleWord(true);
+        summaryArea = new JTextArea();
+        for (JTextArea area : new JTextArea[] {messageArea, summaryArea}) {
+            area.setEditable(false);
+            area.setFont(burpFont);
+            area.setBackground(new Color(30, 30, 30));
+            area.setForeground(new Color(200, 200, 200));
+            area.setCaretColor(new Color(200, 200, 200));
+        }
+        String textPath = settings.reassemblyTextPath();
+        JTextField textPathField = new JTextField(textPath != null ? textPath : "");
+        textPathField.setFont(burpFont);
+        textPathField.setToolTipText("JSON path of the text in each event; leave empty to detect OpenAI and Anthropic streams");
+        JButton applyTextPathButton = new JButton("Apply");
+        applyTextPathButton.addActionListener(e -> applyReassemblyTextPath(textPathField.getText()));
+        textPathField.addActionListener(e -> applyReassemblyTextPath(textPathField.getText()));
+        JPanel reassemblyToolbar = new JPanel(new BorderLayout(6, 0));
+        reassemblyToolbar.setBorder(BorderFactory.createEmptyBorder(2, 6, 2, 6));
+        reassemblyToolbar.add(new JLabel("Text path:"), BorderLayout.WEST);
+        reassemblyToolbar.add(textPathField, BorderLayout.CENTER);
+        reassemblyToolbar.add(applyTextPathButton, BorderLayout.EAST);
+        JSplitPane reassemblySplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+            new JScrollPane(messageArea), new JScrollPane(summaryArea));
+        reassemblySplit.setResizeWeight(0.8);
+        reassembledPanel = new JPanel(new BorderLayout());
+        reassembledPanel.add(reassemblyToolbar, BorderLayout.NORTH);
+        reassembledPanel.add(reassemblySplit, BorderLayout.CENTER);
+        
+        detailTabs = new JTabbedPane();
+        detailTabs.addTab("Event", detailPanel);
+        detailTabs.addTab("Reassembled", reassembledPanel);
+        detailTabs.addChangeListener(e -> updateReassembly());
+        
         // Create split pane
-        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, tableScroll, detailScroll);
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, tableSplit, detailTabs);
         splitPane.setDividerLocation(200);
         splitPane.setResizeWeight(0.4);
         
         mainPanel.add(splitPane, BorderLayout.CENTER);
+        
+        // Search / filter bar
+        searchField = new JTextField();
+        searchField.setFont(burpFont);
+        regexCheckBox = new JCheckBox("Regex");
+        searchStatusLabel = new JLabel();
+        searchStatusLabel.setFont(burpFont);
+        Timer searchTimer = new Timer(SEARCH_DELAY_MS, e -> runSearch());
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
+        searchField.addActionListener(e -> {
+            searchTimer.stop();
+            runSearch();
+        });
+        regexCheckBox.addActionListener(e -> runSearch());
+        
+        JPanel searchOptions = new JPanel(new BorderLayout(6, 0));
+        searchOptions.add(regexCheckBox, BorderLayout.WEST);
+        searchOptions.add(searchStatusLabel, BorderLayout.CENTER);
+        JButton columnsButton = new JButton("Columns\u2026");
+        columnsButton.setToolTipText("Add table columns from JSON paths, e.g. choices[0].delta.content");
+        columnsButton.addActionListener(e -> editProjections());
+        JButton exportButton = new JButton("Export\u2026");
+        exportButton.setToolTipText("Export the selected events, or all events passing the filter, to NDJSON, CSV or raw SSE");
+        exportButton.addActionListener(e -> exportEvents());
+        JPanel searchButtons = new JPanel(new BorderLayout(6, 0));
+        searchButtons.add(columnsButton, BorderLayout.WEST);
+        searchButtons.add(exportButton, BorderLayout.EAST);
+        searchOptions.add(searchButtons, BorderLayout.EAST);
+        JPanel searchBar = new JPanel(new BorderLayout(6, 0));
+        searchBar.setBorder(BorderFactory.createEmptyBorder(2, 6, 2, 6));
+        searchBar.add(new JLabel("Filter:"), BorderLayout.WEST);
+        searchBar.add(searchField, BorderLayout.CENTER);
+        searchBar.add(searchOptions, BorderLayout.EAST);
+        mainPanel.add(searchBar, BorderLayout.NORTH);
+        
+        // Status bar with event count / parse progress
+        statusLabel = new JLabel(" ");
+        statusLabel.setFont(burpFont);
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(2, 6, 2, 6));
+        mainPanel.add(statusLabel, BorderLayout.SOUTH);
+    }
+
+    // Widths, renderers and sorting; the table recreates its columns whenever
+    // the projection columns change
+    private void configureColumns() {
+        TableColumnModel columns = eventsTable.getColumnModel();
+        
+        // Set column widths
+        columns.getColumn(0).setPreferredWidth(60);  // Event #
+        columns.getColumn(1).setPreferredWidth(120); // Type
+        columns.getColumn(2).setPreferredWidth(80);  // ID
+        columns.getColumn(3).setPreferredWidth(80);  // Format
+        columns.getColumn(4).setPreferredWidth(70);  // Size
+        columns.getColumn(tableModel.previewColumn()).setPreferredWidth(300); // Preview
+        columns.getColumn(tableModel.copyColumn()).setPreferredWidth(80);     // Copy button
+        
+        // Custom renderer for all text columns
+        DefaultTableCellRenderer centerRenderer = new DefaultTableCellRenderer();
+        centerRenderer.setHorizontalAlignment(DefaultTableCellRenderer.CENTER);
+        centerRenderer.setBackground(new Color(40, 40, 40));
+        centerRenderer.setForeground(new Color(200, 200, 200));
+        
+        for (int column = 0; column < tableModel.previewColumn(); column++) {
+            columns.getColumn(column).setCellRenderer(centerRenderer);
+        }
+        
+        // Button renderer and editor for copy column
+        columns.getColumn(tableModel.copyColumn()).setCellRenderer(new ButtonRenderer());
+        columns.getColumn(tableModel.copyColumn()).setCellEditor(new ButtonEditor());
+
+    }
+
+    private List<JsonPath> compileProjections(List<String> expressions) {
+        List<JsonPath> paths = new ArrayList<>();
+        for (String expression : expressions) {
+            try {
+                paths.add(JsonPath.compile(expression));
+            } catch (IllegalArgumentException e) {
+                montoyaApi.logging().logToError("Ignoring column: " + e.getMessage());
+            }
+        }
+        return paths;
+    }
+
+    private void editProjections() {
+        JTextArea pathsArea = new JTextArea(String.join("\n", settings.projectionPaths()), 8, 40);
+        JPanel panel = new JPanel(new BorderLayout(0, 6));
+        panel.add(new JLabel("One JSON path per line, e.g. type or choices[0].delta.content"), BorderLayout.NORTH);
+        panel.add(new JScrollPane(pathsArea), BorderLayout.CENTER);
+        int result = JOptionPane.showConfirmDialog(mainPanel, panel, "JSON Path Columns",
+            JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (result != JOptionPane.OK_OPTION) {
+            return;
+        }
+        
+        List<String> expressions = new ArrayList<>();
+        for (String line : pathsArea.getText().split("\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                expressions.add(JsonPath.compile(line).expression());
+            } catch (IllegalArgumentException e) {
+                JOptionPane.showMessageDialog(mainPanel, e.getMessage(), "JSON Path Columns", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
+        settings.setProjectionPaths(expressions);
+        refreshProjections();
+    }
+
+    // Picks up columns changed in this or another SSE tab
+    private void refreshProjections() {
+        List<String> expressions = settings.projectionPaths();
+        if (!expressions.equals(tableModel.projectionExpressions())) {
+            tableModel.setProjections(compileProjections(expressions));
+            configureColumns();
+        }
+    }
+
+    // Exports the selected rows when several are selected, otherwise every row passing the filter
+    private void exportEvents() {
+        SSEEventIndex index = currentIndex;
+        BitSet rows = null;
+        int[] selected = eventsTable.getSelectedRows();
+        if (selected.length > 1 || rowSorter.getFilter() != null) {
+            rows = new BitSet(index.size());
+            if (selected.length > 1) {
+                for (int row : selected) {
+                    rows.set(eventsTable.convertRowIndexToModel(row));
+                }
+            } else {
+                for (int row = 0; row < eventsTable.getRowCount(); row++) {
+                    rows.set(eventsTable.convertRowIndexToModel(row));
+                }
+            }
+        }
+        SSEExportDialog.Target target = SSEExportDialog.chooseTarget(mainPanel, "Export SSE Events");
+        if (target == null) {
+            return;
+        }
+        String url = currentRequestResponse != null && currentRequestResponse.request() != null
+            ? currentRequestResponse.request().url() : null;
+        BitSet exportRows = rows;
+        searchStatusLabel.setText("Exporting\u2026");
+        parseExecutor.submit(() -> {
+            try (SSEExporter exporter = new SSEExporter(target.path(), target.format())) {
+                exporter.write(index, exportRows, url);
+                long count = exporter.eventCount();
+                SwingUtilities.invokeLater(() -> searchStatusLabel.setText("Exported " + count + " events to " +
+                    target.path().getFileName()));
+            } catch (IOException e) {
+                montoyaApi.logging().logToError("Error exporting SSE events: " + e.getMessage());
+                SwingUtilities.invokeLater(() -> {
+                    searchStatusLabel.setText("Export failed");
+                    JOptionPane.showMessageDialog(mainPanel, e.getMessage(), "Export SSE Events",
+                        JOptionPane.ERROR_MESSAGE);
+                });
+            }
+        });
     }
 
     @Override
@@ -123,37 +474,184 @@ public class SSEResponseEditor implements ExtensionProvidedHttpResponseEditor {
     @Override
     public void setRequestResponse(HttpRequestResponse requestResponse) {
         this.currentRequestResponse = requestResponse;
+        if (tableModel == null) {
+            return; // Parsed once the tab is first shown
+        }
+        refreshProjections();
+        
+        // Drop any parse or render still running for the previously selected message
+        long generation = ++parseGeneration;
+        if (parseTask != null) {
+            parseTask.cancel(true);
+            parseTask = null;
+        }
+        detailGeneration++;
+        if (detailTask != null) {
+            detailTask.cancel(true);
+            detailTask = null;
+        }
+        showDetail(null);
+        
+        // The query is kept and applied again once the new response is parsed
+        searchGeneration++;
+        if (searchTask != null) {
+            searchTask.cancel(true);
+            searchTask = null;
+        }
+        searchIndex = null;
+        showFacets(null);
+        applyMatches(null, null);
+        resetReassembly();
+        
+        currentIndex = SSEEventIndex.empty();
+        tableModel.setIndex(currentIndex);
         
         if (requestResponse != null && requestResponse.response() != null) {
             HttpResponse response = requestResponse.response();
-            String body = response.bodyToString();
+            statusLabel.setText("Parsing\u2026");
+            detailPane.setText("Parsing\u2026");
+            parseTask = parseExecutor.submit(() -> parseInBackground(response, generation));
+        }
+    }
+
+    private void parseInBackground(HttpResponse response, long generation) {
+        try {
+            // Index SSE events straight from the body bytes
+            long started = System.nanoTime();
+            byte[] body = response.body().getBytes();
+            metrics.record(SSEMetrics.Stage.BODY, started);
             
-            // Parse SSE events
-            currentEvents = parser.parseSSE(body);
+            // Same body already parsed by this or another editor
+            started = System.nanoTime();
+            SSEParseCache.Entry cached = parseCache.lookup(body);
+            metrics.record(SSEMetrics.Stage.CACHE, started);
+            if (cached != null) {
+                SSEFacets cachedFacets = cached.facets();
+                if (cachedFacets == null) {
+                    // Cached by another tab, which has no use for facets
+                    cachedFacets = SSEFacets.of(cached.index());
+                    if (cachedFacets == null) {
+                        return; // Interrupted
+                    }
+                    parseCache.put(body, cached.index(), cachedFacets);
+                }
+                publishEvents(generation, cached.index(), cachedFacets);
+                return;
+            }
             
-            if (currentEvents.isEmpty()) {
-                tableModel.setEvents(null);
-                detailPane.setText("No SSE events detected in this response.\n\n" +
-                    "This tab shows Server-Sent Events (SSE) parsed from responses.\n" +
-                    "SSE format typically has:\n" +
-                    "  event: event_name\n" +
-                    "  data: event_data\n" +
-                    "  id: event_id\n\n" +
-                    "Or contains data: fields in the response body.");
+            started = System.nanoTime();
+            SSEEventIndex index;
+            SSEFacets facets;
+            if (body.length >= SSEParallelParser.PARALLEL_THRESHOLD) {
+                // Huge bodies are split at event boundaries and parsed on all
+                // cores; the table only fills once every range is done. Range
+                // rows are only numbered once merged, so facets take a pass
+                // over the merged columns
+                index = SSEParallelParser.index(body, workerPool);
+                facets = index != null ? SSEFacets.of(index) : null;
             } else {
-                tableModel.setEvents(currentEvents);
-                // Show first event by default
-                if (eventsTable.getRowCount() > 0) {
-                    eventsTable.setRowSelectionInterval(0, 0);
-                    showEventDetail(currentEvents.get(0));
-                }
+                SSEFacets.Builder facetBuilder = new SSEFacets.Builder();
+                index = parseProgressively(body, generation, facetBuilder);
+                facets = index != null ? facetBuilder.build(index) : null;
+            }
+            if (facets == null) {
+                return; // Interrupted
             }
+            metrics.record(SSEMetrics.Stage.PARSE, started);
+            metrics.countParsed(body.length, index.size());
+            parseCache.put(body, index, facets);
+            publishEvents(generation, index, facets);
+        } catch (Exception e) {
+            montoyaApi.logging().logToError("Error parsing SSE events: " + e.getMessage());
+            SSEEventIndex empty = SSEEventIndex.empty();
+            publishEvents(generation, empty, SSEFacets.of(empty));
+        }
+    }
+
+    // Publishes found events in batches so the table fills while parsing and
+    // fills the facets from the same callback; null when interrupted
+    private SSEEventIndex parseProgressively(byte[] body, long generation, SSEFacets.Builder facets) {
+        SSEEventIndex.Builder builder = new SSEEventIndex.Builder(body);
+        SSEStreamParser stream = new SSEStreamParser(parser -> {
+            builder.onEvent(parser);
+            facets.add(builder);
+        });
+        int published = 0;
+        long lastPublish = System.nanoTime();
+        
+        for (int offset = 0; offset < body.length; offset += PARSE_CHUNK_SIZE) {
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            stream.feed(body, offset, Math.min(PARSE_CHUNK_SIZE, body.length - offset));
+            
+            long now = System.nanoTime();
+            if (builder.size() > published && now - lastPublish >= PUBLISH_INTERVAL_NANOS) {
+                publishEvents(generation, builder.snapshot(), null);
+                published = builder.size();
+                lastPublish = now;
+            }
+        }
+        stream.flush();
+        return builder.snapshot();
+    }
+
+    // Facets are only built for the complete index, so null means still parsing
+    private void publishEvents(long generation, SSEEventIndex index, SSEFacets facets) {
+        SwingUtilities.invokeLater(() -> {
+            // Ignore results of a parse that has been superseded
+            if (generation != parseGeneration) {
+                return;
+            }
+            long started = System.nanoTime();
+            try {
+                showEvents(index, facets);
+            } finally {
+                metrics.record(SSEMetrics.Stage.EDT, started);
+            }
+        });
+    }
+
+    private void showEvents(SSEEventIndex index, SSEFacets facets) {
+        boolean firstBatch = currentIndex.isEmpty();
+        currentIndex = index;
+        tableModel.updateIndex(index);
+        updateReassembly();
+        
+        if (firstBatch && eventsTable.getRowCount() > 0) {
+            // Show first event by default
+            eventsTable.setRowSelectionInterval(0, 0);
+            showEventDetail(eventsTable.convertRowIndexToModel(0));
+        }
+        
+        if (facets == null) {
+            statusLabel.setText("Parsing\u2026 " + index.size() + " events");
+            return;
+        }
+        
+        parseTask = null;
+        statusLabel.setText(index.size() + " events");
+        showFacets(facets);
+        applyFilters();
+        if (!searchField.getText().isEmpty()) {
+            runSearch();
+        }
+        if (index.isEmpty()) {
+            detailPane.setText("No SSE events detected in this response.\n\n" +
+                "This tab shows Server-Sent Events (SSE) parsed from responses.\n" +
+                "SSE format typically has:\n" +
+                "  event: event_name\n" +
+                "  data: event_data\n" +
+                "  id: event_id\n\n" +
+                "Or contains data: fields in the response body.");
         }
     }
 
     @Override
     public boolean isEnabledFor(HttpRequestResponse requestResponse) {
-        return requestResponse != null && requestResponse.response() != null;
+        // Called for every message Burp shows, so only sniffs a bounded prefix
+        return requestResponse != null && requestResponse.response() != null &&
+            SSECaptureHandler.looksLikeEventStream(requestResponse.response());
     }
 
     @Override
@@ -168,276 +666,673 @@ public class SSEResponseEditor implements ExtensionProvidedHttpResponseEditor {
 
     @Override
     public Selection selectedData() {
-        String selected = detailPane.getSelectedText();
-        if (selected != null && !selected.isEmpty()) {
+        if (detailPane == null) {
+            return null;
+        }
+        String selected = selectedDetailText();
+        if (selected != null) {
             return Selection.selection(burp.api.montoya.core.ByteArray.byteArray(selected));
         }
         return null;
     }
 
+    // Selected detail text; a selection running to the end of a partly
+    // rendered event also covers the data that is not rendered yet
+    private String selectedDetailText() {
+        String selected = detailPane.getSelectedText();
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        if (currentDetail != null && !currentDetail.isComplete() &&
+            detailPane.getSelectionEnd() >= detailPane.getDocument().getLength()) {
+            selected += currentDetail.remainingText();
+        }
+        return selected;
+    }
+
     @Override
     public boolean isModified() {
         return false;
     }
 
-    private void showEventDetail(SSEEvent event) {
-        StyledDocument doc = detailPane.getStyledDocument();
+    private void showEventDetail(int row) {
+        long generation = ++detailGeneration;
+        if (detailTask != null) {
+            detailTask.cancel(true);
+            detailTask = null;
+        }
         
-        try {
-            doc.remove(0, doc.getLength());
-            
-            // Style definitions
-            SimpleAttributeSet headerStyle = new SimpleAttributeSet();
-            StyleConstants.setForeground(headerStyle, new Color(100, 200, 255));
-            StyleConstants.setBold(headerStyle, true);
-            
-            SimpleAttributeSet labelStyle = new SimpleAttributeSet();
-            StyleConstants.setForeground(labelStyle, new Color(150, 150, 150));
-            
-            SimpleAttributeSet valueStyle = new SimpleAttributeSet();
-            StyleConstants.setForeground(valueStyle, new Color(200, 200, 200));
-            
-            // Header
-            doc.insertString(doc.getLength(), "Event Details\n", headerStyle);
-            doc.insertString(doc.getLength(), "═══════════════════════════════════════════════\n\n", headerStyle);
-            
-            // Event info
-            if (event.event != null) {
-                doc.insertString(doc.getLength(), "Type: ", labelStyle);
-                doc.insertString(doc.getLength(), event.event + "\n", valueStyle);
-            }
-            if (event.id != null) {
-                doc.insertString(doc.getLength(), "ID: ", labelStyle);
-                doc.insertString(doc.getLength(), event.id + "\n", valueStyle);
+        SSEEventIndex index = currentIndex;
+        FormatType format = index.format(row);
+        int pageChars = settings.detailPageKb() * 1024;
+        int highlightLimit = settings.highlightLimitKb() * 1024;
+        
+        // Small events are cheap enough to decode and render in place
+        if (index.dataLength(row) <= SYNC_RENDER_LIMIT) {
+            try {
+                showDetail(render(tableModel.getEvent(row), format, pageChars, highlightLimit));
+            } catch (Exception e) {
+                montoyaApi.logging().logToError("Error showing event detail: " + e.getMessage());
             }
-            if (event.retry != null) {
-                doc.insertString(doc.getLength(), "Retry: ", labelStyle);
-                doc.insertString(doc.getLength(), event.retry + " ms\n", valueStyle);
+            return;
+        }
+        
+        // Decode and build large documents off the EDT, then swap them in
+        showDetail(null);
+        detailPane.setText("Rendering event #" + (row + 1) + "\u2026");
+        detailTask = parseExecutor.submit(() -> {
+            try {
+                long decodeStarted = System.nanoTime();
+                SSEEvent event = index.decode(row);
+                metrics.record(SSEMetrics.Stage.DECODE, decodeStarted);
+                EventDetailRenderer.Detail detail = render(event, format, pageChars, highlightLimit);
+                SwingUtilities.invokeLater(() -> {
+                    if (generation == detailGeneration) {
+                        long started = System.nanoTime();
+                        detailTask = null;
+                        showDetail(detail);
+                        metrics.record(SSEMetrics.Stage.EDT, started);
+                    }
+                });
+            } catch (Exception e) {
+                montoyaApi.logging().logToError("Error showing event detail: " + e.getMessage());
             }
-            
-            FormatType format = formatDetector.detectFormat(event.data != null ? event.data : "");
-            doc.insertString(doc.getLength(), "Format: ", labelStyle);
-            doc.insertString(doc.getLength(), format.getDisplayName() + "\n\n", valueStyle);
-            
-            doc.insertString(doc.getLength(), "Data:\n", headerStyle);
-            doc.insertString(doc.getLength(), "───────────────────────────────────────────────\n", headerStyle);
-            
-            // Data with syntax highlighting
-            if (event.data != null) {
-                if (format == FormatType.JSON) {
-                    highlightJSON(doc, event.data);
-                } else {
-                    doc.insertString(doc.getLength(), event.data, valueStyle);
-                }
+        });
+    }
+
+    private EventDetailRenderer.Detail render(SSEEvent event, FormatType format, int pageChars, int highlightLimit)
+            throws BadLocationException {
+        long started = System.nanoTime();
+        EventDetailRenderer.Detail detail = EventDetailRenderer.render(event, format, pageChars, highlightLimit);
+        metrics.record(SSEMetrics.Stage.RENDER, started);
+        return detail;
+    }
+
+    private void showDetail(EventDetailRenderer.Detail detail) {
+        currentDetail = detail;
+        clearMatchHighlights();
+        if (detail != null) {
+            detailPane.setDocument(detail.document());
+            detailPane.setCaretPosition(0);
+            highlightMatches();
+        }
+        updateDetailToolbar();
+    }
+
+    private void appendDetailPage(boolean all) {
+        if (currentDetail == null || currentDetail.isComplete()) {
+            return;
+        }
+        try {
+            if (all) {
+                currentDetail.appendAll();
             } else {
-                doc.insertString(doc.getLength(), "(no data)", labelStyle);
+                currentDetail.appendNextPage(settings.detailPageKb() * 1024);
             }
-            
-            detailPane.setCaretPosition(0);
-            
         } catch (Exception e) {
             montoyaApi.logging().logToError("Error showing event detail: " + e.getMessage());
         }
+        highlightMatches();
+        updateDetailToolbar();
     }
 
-    private void highlightJSON(StyledDocument doc, String json) throws Exception {
-        // Color definitions
-        SimpleAttributeSet keyStyle = new SimpleAttributeSet();
-        StyleConstants.setForeground(keyStyle, new Color(150, 200, 255));
-        
-        SimpleAttributeSet stringStyle = new SimpleAttributeSet();
-        StyleConstants.setForeground(stringStyle, new Color(144, 238, 144));
-        
-        SimpleAttributeSet numberStyle = new SimpleAttributeSet();
-        StyleConstants.setForeground(numberStyle, new Color(255, 200, 100));
+    // Feeds new rows of the current index to the reassembler, one task at a time
+    private void updateReassembly() {
+        if (detailTabs.getSelectedComponent() != reassembledPanel) {
+            return;
+        }
+        if (reassemblyTask != null) {
+            reassemblyPending = true;
+            return;
+        }
+        if (reassembler == null) {
+            JsonPath textPath = null;
+            String expression = settings.reassemblyTextPath();
+            if (expression != null) {
+                try {
+                    textPath = JsonPath.compile(expression);
+                } catch (IllegalArgumentException e) {
+                    montoyaApi.logging().logToError("Ignoring text path: " + e.getMessage());
+                }
+            }
+            reassembler = new StreamReassembler(textPath);
+        }
         
-        SimpleAttributeSet booleanStyle = new SimpleAttributeSet();
-        StyleConstants.setForeground(booleanStyle, new Color(255, 150, 150));
+        StreamReassembler target = reassembler;
+        SSEEventIndex index = currentIndex;
+        int shown = shownMessageLength;
+        reassemblyTask = parseExecutor.submit(() -> {
+            String appended = "";
+            String summary = null;
+            try {
+                if (!target.update(index)) {
+                    return; // Reset for another response
+                }
+                appended = target.messageFrom(shown);
+                summary = target.summary();
+            } catch (Exception e) {
+                montoyaApi.logging().logToError("Error reassembling SSE stream: " + e.getMessage());
+            }
+            String newText = appended;
+            String newSummary = summary;
+            SwingUtilities.invokeLater(() -> {
+                if (target != reassembler) {
+                    return;
+                }
+                reassemblyTask = null;
+                // Only the new part of the message goes into the view
+                messageArea.append(newText);
+                shownMessageLength = shown + newText.length();
+                if (newSummary != null) {
+                    summaryArea.setText(newSummary);
+                }
+                if (reassemblyPending) {
+                    reassemblyPending = false;
+                    updateReassembly();
+                }
+            });
+        });
+    }
+
+    private void resetReassembly() {
+        if (reassemblyTask != null) {
+            reassemblyTask.cancel(true);
+            reassemblyTask = null;
+        }
+        reassemblyPending = false;
+        reassembler = null;
+        shownMessageLength = 0;
+        messageArea.setText("");
+        summaryArea.setText("");
+    }
+
+    private void applyReassemblyTextPath(String expression) {
+        if (!expression.isBlank()) {
+            try {
+                JsonPath.compile(expression);
+            } catch (IllegalArgumentException e) {
+                JOptionPane.showMessageDialog(mainPanel, e.getMessage(), "Text Path", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
+        settings.setReassemblyTextPath(expression);
+        resetReassembly();
+        updateReassembly();
+    }
+
+    private void runSearch() {
+        long generation = ++searchGeneration;
+        if (searchTask != null) {
+            searchTask.cancel(true);
+            searchTask = null;
+        }
         
-        SimpleAttributeSet punctStyle = new SimpleAttributeSet();
-        StyleConstants.setForeground(punctStyle, new Color(180, 180, 180));
+        String query = searchField.getText();
+        if (query.isEmpty()) {
+            applyMatches(null, null);
+            return;
+        }
         
-        String indented = prettifyJSON(json);
-        String[] lines = indented.split("\n");
+        boolean regex = regexCheckBox.isSelected();
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(regex ? query : Pattern.quote(query),
+                Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        } catch (PatternSyntaxException e) {
+            searchStatusLabel.setText("Invalid regex");
+            return;
+        }
         
-        for (String line : lines) {
-            int i = 0;
-            while (i < line.length()) {
-                char c = line.charAt(i);
-                
-                if (c == '"') {
-                    int end = findStringEnd(line, i + 1);
-                    String str = line.substring(i, end + 1);
-                    
-                    boolean isKey = false;
-                    for (int j = end + 1; j < line.length(); j++) {
-                        if (line.charAt(j) == ':') {
-                            isKey = true;
-                            break;
-                        } else if (!Character.isWhitespace(line.charAt(j))) {
-                            break;
-                        }
+        SSEEventIndex index = currentIndex;
+        SSESearchIndex existing = searchIndex != null && searchIndex.events() == index ? searchIndex : null;
+        searchStatusLabel.setText("Searching\u2026");
+        searchTask = parseExecutor.submit(() -> {
+            try {
+                long started = System.nanoTime();
+                BitSet matches;
+                SSESearchIndex textIndex = existing;
+                if (regex) {
+                    matches = SSESearchIndex.search(index, pattern);
+                } else {
+                    if (textIndex == null) {
+                        textIndex = SSESearchIndex.build(index);
                     }
-                    
-                    doc.insertString(doc.getLength(), str, isKey ? keyStyle : stringStyle);
-                    i = end + 1;
-                } else if (Character.isDigit(c) || (c == '-' && i + 1 < line.length() && Character.isDigit(line.charAt(i + 1)))) {
-                    int end = i;
-                    if (c == '-') end++;
-                    while (end < line.length() && (Character.isDigit(line.charAt(end)) || 
-                           line.charAt(end) == '.' || line.charAt(end) == 'e' || line.charAt(end) == 'E' ||
-                           line.charAt(end) == '+' || line.charAt(end) == '-')) {
-                        end++;
+                    matches = textIndex != null ? textIndex.search(query) : null;
+                }
+                if (matches == null) {
+                    return; // Interrupted by a newer query
+                }
+                metrics.record(SSEMetrics.Stage.SEARCH, started);
+                SSESearchIndex builtIndex = textIndex;
+                SwingUtilities.invokeLater(() -> {
+                    if (generation != searchGeneration) {
+                        return;
                     }
-                    doc.insertString(doc.getLength(), line.substring(i, end), numberStyle);
-                    i = end;
-                } else if (line.substring(i).startsWith("true") || line.substring(i).startsWith("false") || 
-                           line.substring(i).startsWith("null")) {
-                    String word = line.substring(i).startsWith("true") ? "true" : 
-                                 line.substring(i).startsWith("false") ? "false" : "null";
-                    doc.insertString(doc.getLength(), word, booleanStyle);
-                    i += word.length();
-                } else {
-                    doc.insertString(doc.getLength(), String.valueOf(c), punctStyle);
-                    i++;
+                    searchTask = null;
+                    if (builtIndex != null) {
+                        searchIndex = builtIndex;
+                    }
+                    applyMatches(matches, pattern);
+                });
+            } catch (Exception e) {
+                montoyaApi.logging().logToError("Error searching SSE events: " + e.getMessage());
+            }
+        });
+    }
+
+    // Filters the table to the matching rows, or shows all rows when matches is null
+    private void applyMatches(BitSet matches, Pattern pattern) {
+        matchPattern = pattern;
+        searchMatches = matches;
+        applyFilters();
+    }
+
+    // Shows the rows passing both the facet selection and the search
+    private void applyFilters() {
+        BitSet visible = facets != null ? facets.visibleRows(hiddenFacets) : null;
+        if (searchMatches != null) {
+            if (visible == null) {
+                visible = searchMatches;
+            } else {
+                visible.and(searchMatches);
+            }
+        }
+        rowSorter.setFilter(visible);
+        searchStatusLabel.setText(visible != null ? visible.cardinality() + " of " + currentIndex.size() + " events" : "");
+        
+        if (eventsTable.getSelectedRow() < 0 && eventsTable.getRowCount() > 0) {
+            eventsTable.setRowSelectionInterval(0, 0);
+        } else {
+            clearMatchHighlights();
+            highlightMatches();
+        }
+    }
+
+    // Rebuilds the facet checkboxes; null clears them while a response is parsed
+    private void showFacets(SSEFacets facets) {
+        this.facets = facets;
+        facetPanel.removeAll();
+        if (facets != null) {
+            Font font = eventsTable.getFont();
+            for (SSEFacets.Group group : SSEFacets.Group.values()) {
+                JLabel header = new JLabel(group.getDisplayName());
+                header.setFont(font.deriveFont(Font.BOLD));
+                header.setAlignmentX(Component.LEFT_ALIGNMENT);
+                facetPanel.add(header);
+                Set<String> hidden = hiddenFacets.computeIfAbsent(group, g -> new HashSet<>());
+                for (SSEFacets.Value value : facets.values(group)) {
+                    JCheckBox checkBox = new JCheckBox(value.label() + " (" + value.count() + ")",
+                        !hidden.contains(value.label()));
+                    checkBox.setFont(font);
+                    checkBox.setAlignmentX(Component.LEFT_ALIGNMENT);
+                    checkBox.addActionListener(e -> {
+                        if (checkBox.isSelected()) {
+                            hidden.remove(value.label());
+                        } else {
+                            hidden.add(value.label());
+                        }
+                        applyFilters();
+                    });
+                    facetPanel.add(checkBox);
                 }
+                facetPanel.add(Box.createVerticalStrut(6));
             }
-            doc.insertString(doc.getLength(), "\n", punctStyle);
+            JButton showAllButton = new JButton("Show all");
+            showAllButton.setAlignmentX(Component.LEFT_ALIGNMENT);
+            showAllButton.addActionListener(e -> {
+                hiddenFacets.values().forEach(Set::clear);
+                showFacets(this.facets);
+                applyFilters();
+            });
+            facetPanel.add(showAllButton);
         }
+        facetPanel.revalidate();
+        facetPanel.repaint();
     }
 
-    private int findStringEnd(String str, int start) {
-        boolean escaped = false;
-        for (int i = start; i < str.length(); i++) {
-            char c = str.charAt(i);
-            if (escaped) {
-                escaped = false;
-            } else if (c == '\\') {
-                escaped = true;
-            } else if (c == '"') {
-                return i;
+    private void highlightMatches() {
+        clearMatchHighlights();
+        if (matchPattern == null || currentDetail == null) {
+            return;
+        }
+        try {
+            Document doc = detailPane.getDocument();
+            Matcher matcher = matchPattern.matcher(doc.getText(0, doc.getLength()));
+            Highlighter highlighter = detailPane.getHighlighter();
+            while (matchHighlights.size() < MAX_HIGHLIGHTS && matcher.find()) {
+                if (matcher.end() > matcher.start()) {
+                    matchHighlights.add(highlighter.addHighlight(matcher.start(), matcher.end(), MATCH_PAINTER));
+                }
             }
+        } catch (BadLocationException e) {
+            montoyaApi.logging().logToError("Error highlighting matches: " + e.getMessage());
         }
-        return str.length() - 1;
     }
 
-    private String prettifyJSON(String json) {
-        StringBuilder result = new StringBuilder();
-        int indent = 0;
-        boolean inString = false;
-        boolean escaped = false;
-        
-        for (int i = 0; i < json.length(); i++) {
-            char c = json.charAt(i);
-            
-            if (escaped) {
-                result.append(c);
-                escaped = false;
-                continue;
+    private void clearMatchHighlights() {
+        Highlighter highlighter = detailPane.getHighlighter();
+        for (Object highlight : matchHighlights) {
+            highlighter.removeHighlight(highlight);
+        }
+        matchHighlights.clear();
+    }
+
+    private void updateDetailToolbar() {
+        boolean partial = currentDetail != null && !currentDetail.isComplete();
+        if (partial) {
+            detailStatusLabel.setText("Showing " + formatSize(currentDetail.renderedChars()) + " of " +
+                formatSize(currentDetail.totalChars()) + " \u2014 scroll down to load more");
+        }
+        detailToolbar.setVisible(partial);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    private static String formatSize(long chars) {
+        if (chars < 1024) {
+            return chars + " chars";
+        }
+        if (chars < 1024 * 1024) {
+            return String.format("%.1f K chars", chars / 1024.0);
+        }
+        return String.format("%.1f M chars", chars / (1024.0 * 1024.0));
+    }
+
+    // Table Model
+    private class SSETableModel extends AbstractTableModel {
+        // Decoded rows for the detail pane are kept in a small LRU; table cells
+        // read the index columns
+        private static final int DECODED_ROW_CACHE_SIZE = 256;
+        private SSEEventIndex index = SSEEventIndex.empty();
+        private final Map<Integer, SSEEvent> decodedRows = new LinkedHashMap<>(DECODED_ROW_CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, SSEEvent> eldest) {
+                return size() > DECODED_ROW_CACHE_SIZE;
             }
-            
-            if (c == '\\' && inString) {
-                result.append(c);
-                escaped = true;
-                continue;
+        };
+        // Projection columns sit between Size and Data Preview
+        private static final int PROJECTION_START = 5;
+        private static final int PROJECTION_DISPLAY_LIMIT = 200;
+        // Sort key of each FormatType ordinal, ordering formats by name
+        private static final long[] FORMAT_ORDER = new long[FormatType.values().length];
+        static {
+            FormatType[] byName = FormatType.values();
+            Arrays.sort(byName, Comparator.comparing(FormatType::getDisplayName));
+            for (int i = 0; i < byName.length; i++) {
+                FORMAT_ORDER[byName[i].ordinal()] = i;
             }
-            
-            if (c == '"') {
-                inString = !inString;
-                result.append(c);
-                continue;
+        }
+        private String[] previews = new String[0];
+        private List<JsonPath> projections = new ArrayList<>();
+        // Projected values per row, all paths evaluated together off the EDT
+        // the first time the row is painted; pendingValues marks rows in flight
+        private String[][] projected = new String[0][];
+        private String[] pendingValues = new String[0];
+        private final BitSet queuedProjections = new BitSet();
+        private boolean projectionScheduled;
+        private long projectionGeneration;
+        private Future<?> projectionTask;
+
+        public void setIndex(SSEEventIndex index) {
+            this.index = index;
+            decodedRows.clear();
+            previews = new String[0];
+            resetProjections();
+            fireTableDataChanged();
+        }
+
+        public void setProjections(List<JsonPath> projections) {
+            this.projections = projections;
+            pendingValues = new String[projections.size()];
+            Arrays.fill(pendingValues, "\u2026");
+            resetProjections();
+            fireTableStructureChanged();
+        }
+
+        public List<String> projectionExpressions() {
+            List<String> expressions = new ArrayList<>();
+            for (JsonPath path : projections) {
+                expressions.add(path.expression());
             }
-            
-            if (inString) {
-                result.append(c);
-                continue;
+            return expressions;
+        }
+
+        public boolean isProjectionColumn(int column) {
+            return column >= PROJECTION_START && column < previewColumn();
+        }
+
+        public int previewColumn() {
+            return PROJECTION_START + projections.size();
+        }
+
+        public int copyColumn() {
+            return previewColumn() + 1;
+        }
+
+        // Same response, more rows parsed
+        public void updateIndex(SSEEventIndex index) {
+            int firstRow = this.index.size();
+            this.index = index;
+            if (index.size() > firstRow) {
+                fireTableRowsInserted(firstRow, index.size() - 1);
             }
-            
-            switch (c) {
-                case '{':
-                case '[':
-                    result.append(c);
-                    result.append('\n');
-                    indent++;
-                    result.append("  ".repeat(indent));
-                    break;
-                case '}':
-                case ']':
-                    result.append('\n');
-                    indent--;
-                    result.append("  ".repeat(indent));
-                    result.append(c);
-                    break;
-                case ',':
-                    result.append(c);
-                    result.append('\n');
-                    result.append("  ".repeat(indent));
-                    break;
-                case ':':
-                    result.append(c);
-                    result.append(' ');
-                    break;
-                default:
-                    if (!Character.isWhitespace(c)) {
-                        result.append(c);
-                    }
+        }
+
+        public SSEEvent getEvent(int rowIndex) {
+            SSEEvent event = decodedRows.get(rowIndex);
+            if (event == null) {
+                long started = System.nanoTime();
+                event = index.decode(rowIndex);
+                metrics.record(SSEMetrics.Stage.DECODE, started);
+                decodedRows.put(rowIndex, event);
             }
+            return event;
         }
-        
-        return result.toString();
-    }
 
-    // Table Model
-    private class SSETableModel extends AbstractTableModel {
-        private List<SSEEvent> events;
-        private final String[] columnNames = {"Event #", "Type", "ID", "Format", "Data Preview", "Copy"};
+        // Previews are built once per row, the first time the row is painted
+        private String getPreview(int rowIndex) {
+            if (previews.length < index.size()) {
+                previews = Arrays.copyOf(previews, Math.max(index.size(), previews.length * 2));
+            }
+            String preview = previews[rowIndex];
+            if (preview == null) {
+                preview = index.dataPreview(rowIndex, 80);
+                previews[rowIndex] = preview;
+            }
+            return preview;
+        }
 
-        public void setEvents(List<SSEEvent> events) {
-            this.events = events;
-            fireTableDataChanged();
+        private String getProjection(int rowIndex, int projection) {
+            if (projected.length < index.size()) {
+                projected = Arrays.copyOf(projected, Math.max(index.size(), projected.length * 2));
+            }
+            String[] values = projected[rowIndex];
+            if (values == null) {
+                if (index.format(rowIndex) == FormatType.JSON) {
+                    values = pendingValues;
+                    queuedProjections.set(rowIndex);
+                    requestProjections();
+                } else {
+                    values = new String[projections.size()];
+                    Arrays.fill(values, "");
+                }
+                projected[rowIndex] = values;
+            }
+            return values[projection];
+        }
+
+        // Rows painted in the same pass are projected by one task
+        private void requestProjections() {
+            if (projectionScheduled) {
+                return;
+            }
+            projectionScheduled = true;
+            SwingUtilities.invokeLater(() -> {
+                projectionScheduled = false;
+                if (queuedProjections.isEmpty()) {
+                    return;
+                }
+                BitSet rows = (BitSet) queuedProjections.clone();
+                queuedProjections.clear();
+                long generation = projectionGeneration;
+                SSEEventIndex index = this.index;
+                List<JsonPath> projections = this.projections;
+                projectionTask = parseExecutor.submit(() -> {
+                    String[][] results = new String[rows.cardinality()][];
+                    int next = 0;
+                    for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            return;
+                        }
+                        long started = System.nanoTime();
+                        String data = index.data(row);
+                        String[] values = new String[projections.size()];
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = projectValue(projections.get(i), data);
+                        }
+                        results[next++] = values;
+                        metrics.record(SSEMetrics.Stage.PROJECTION, started);
+                    }
+                    SwingUtilities.invokeLater(() -> {
+                        if (generation != projectionGeneration) {
+                            return;
+                        }
+                        int stored = 0;
+                        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                            projected[row] = results[stored++];
+                        }
+                        fireTableRowsUpdated(rows.nextSetBit(0), rows.length() - 1);
+                    });
+                });
+            });
+        }
+
+        // Results of a task still running are dropped
+        private void resetProjections() {
+            projectionGeneration++;
+            if (projectionTask != null) {
+                projectionTask.cancel(true);
+                projectionTask = null;
+            }
+            queuedProjections.clear();
+            projected = new String[0][];
+        }
+
+        // Thread-safe, so sort keys use it too
+        private static String projectValue(JsonPath path, String data) {
+            String value = path.evaluate(data);
+            if (value == null) {
+                return "";
+            }
+            return value.length() > PROJECTION_DISPLAY_LIMIT ? value.substring(0, PROJECTION_DISPLAY_LIMIT) + "..." : value;
         }
 
         @Override
         public int getRowCount() {
-            return events == null ? 0 : events.size();
+            return index.size();
         }
 
         @Override
         public int getColumnCount() {
-            return columnNames.length;
+            return copyColumn() + 1;
         }
 
         @Override
         public String getColumnName(int column) {
-            return columnNames[column];
+            if (isProjectionColumn(column)) {
+                return projections.get(column - PROJECTION_START).expression();
+            }
+            if (column == previewColumn()) return "Data Preview";
+            if (column == copyColumn()) return "Copy";
+            switch (column) {
+                case 0: return "Event #";
+                case 1: return "Type";
+                case 2: return "ID";
+                case 3: return "Format";
+                case 4: return "Size";
+                default: return "";
+            }
         }
 
         @Override
         public Object getValueAt(int rowIndex, int columnIndex) {
-            if (events == null || rowIndex >= events.size()) return "";
+            if (rowIndex >= index.size()) return "";
             
-            SSEEvent event = events.get(rowIndex);
+            if (isProjectionColumn(columnIndex)) {
+                return getProjection(rowIndex, columnIndex - PROJECTION_START);
+            }
+            if (columnIndex == previewColumn()) return getPreview(rowIndex);
+            if (columnIndex == copyColumn()) return "Copy";
             switch (columnIndex) {
                 case 0: return String.valueOf(rowIndex + 1);
-                case 1: return event.event != null ? event.event : "N/A";
-                case 2: return event.id != null ? event.id : "N/A";
-                case 3: 
-                    FormatType format = formatDetector.detectFormat(event.data != null ? event.data : "");
-                    return format.getDisplayName();
-                case 4:
-                    String preview = event.data != null ? event.data : "";
-                    if (preview.length() > 80) {
-                        preview = preview.substring(0, 80) + "...";
-                    }
-                    return preview;
-                case 5: return "Copy";
+                case 1: return orNA(index.eventType(rowIndex));
+                case 2: return orNA(index.id(rowIndex));
+                case 3: return index.format(rowIndex).getDisplayName();
+                case 4: return formatBytes(index.dataLength(rowIndex));
                 default: return "";
             }
         }
 
+        // Every column before the preview sorts
+        public boolean isSortable(int column) {
+            return column < previewColumn();
+        }
+
+        /** Sort keys of the current rows; cell text is only built for the type, id and projection columns. */
+        public SSEEventSorter.KeySource keySource() {
+            SSEEventIndex index = this.index;
+            List<JsonPath> projections = this.projections;
+            int rows = index.size();
+            return new SSEEventSorter.KeySource() {
+                @Override
+                public int rowCount() {
+                    return rows;
+                }
+
+                @Override
+                public long[] keys(int column) {
+                    long[] keys = new long[rows];
+                    if (column == 0 || column == 3 || column == 4) {
+                        for (int row = 0; row < rows; row++) {
+                            keys[row] = column == 0 ? row : column == 3
+                                ? FORMAT_ORDER[index.format(row).ordinal()] : index.dataLength(row);
+                        }
+                        return keys;
+                    }
+                    String[] values = new String[rows];
+                    for (int row = 0; row < rows; row++) {
+                        if (row % 1024 == 0 && Thread.currentThread().isInterrupted()) {
+                            return null;
+                        }
+                        if (column == 1) {
+                            values[row] = orNA(index.eventType(row));
+                        } else if (column == 2) {
+                            values[row] = orNA(index.id(row));
+                        } else {
+                            values[row] = index.format(row) == FormatType.JSON
+                                ? projectValue(projections.get(column - PROJECTION_START), index.data(row)) : "";
+                        }
+                    }
+                    return SSEEventSorter.rank(values);
+                }
+            };
+        }
+
+        private String orNA(String value) {
+            return value != null ? value : "N/A";
+        }
+
         @Override
         public boolean isCellEditable(int row, int column) {
-            return column == 5; // Only copy button is editable
+            return column == copyColumn(); // Only copy button is editable
         }
     }
 
@@ -468,8 +1363,8 @@ public class SSEResponseEditor implements ExtensionProvidedHttpResponseEditor {
             button = new JButton();
             button.setOpaque(true);
             button.addActionListener(e -> {
-                if (currentEvents != null && currentRow < currentEvents.size()) {
-                    SSEEvent event = currentEvents.get(currentRow);
+                if (currentRow < tableModel.getRowCount()) {
+                    SSEEvent event = tableModel.getEvent(currentRow);
                     if (event.data != null) {
                         StringSelection selection = new StringSelection(event.data);
                         Toolkit.getDefaultToolkit().getSystemClipboard().setContents(selection, selection);
@@ -494,7 +1389,7 @@ public class SSEResponseEditor implements ExtensionProvidedHttpResponseEditor {
         @Override
         public Component getTableCellEditorComponent(JTable table, Object value,
                 boolean isSelected, int row, int column) {
-            currentRow = row;
+            currentRow = table.convertRowIndexToModel(row);
             button.setText("📋 Copy");
             button.setBackground(new Color(70, 120, 180));
             button.setForeground(Color.WHITE);
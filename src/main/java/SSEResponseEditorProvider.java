@@ -1,3 +1,6 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
 import burp.api.montoya.MontoyaApi;
 import burp.api.montoya.ui.editor.extension.EditorCreationContext;
 import burp.api.montoya.ui.editor.extension.ExtensionProvidedHttpResponseEditor;
@@ -6,14 +9,24 @@ import burp.api.montoya.ui.editor.extension.HttpResponseEditorProvider;
 public class SSEResponseEditorProvider implements HttpResponseEditorProvider {
     
     private final MontoyaApi montoyaApi;
+    private final ExecutorService parseExecutor;
+    private final ForkJoinPool workerPool;
+    private final SSEParseCache parseCache;
+    private final SSEViewerSettings settings;
+    private final SSEMetrics metrics;
 
-    public SSEResponseEditorProvider(MontoyaApi montoyaApi) {
+    public SSEResponseEditorProvider(MontoyaApi montoyaApi, ExecutorService parseExecutor, ForkJoinPool workerPool,
+                                     SSEParseCache parseCache, SSEViewerSettings settings, SSEMetrics metrics) {
         this.montoyaApi = montoyaApi;
+        this.parseExecutor = parseExecutor;
+        this.workerPool = workerPool;
+        this.parseCache = parseCache;
+        this.settings = settings;
+        this.metrics = metrics;
     }
 
     @Override
     public ExtensionProvidedHttpResponseEditor provideHttpResponseEditor(EditorCreationContext creationContext) {
-        return new SSEResponseEditor(montoyaApi);
+        return new SSEResponseEditor(montoyaApi, parseExecutor, workerPool, parseCache, settings, metrics);
     }
 }
-
@@ -0,0 +1,240 @@
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JMenuItem;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import burp.api.montoya.MontoyaApi;
+import burp.api.montoya.http.message.HttpRequestResponse;
+import burp.api.montoya.http.message.responses.HttpResponse;
+import burp.api.montoya.proxy.ProxyHttpRequestResponse;
+import burp.api.montoya.ui.contextmenu.ContextMenuEvent;
+import burp.api.montoya.ui.contextmenu.ContextMenuItemsProvider;
+
+/**
+ * Suite tab with statistics across many event-stream responses from the
+ * proxy history, the site map or the messages selected in any Burp tool.
+ * Responses are split across a fork-join pool; each leaf task fills its own
+ * {@link SSEStatistics} and the results are merged as the tasks join.
+ */
+public class SSEStatsTab implements ContextMenuItemsProvider {
+
+    // Responses parsed by one leaf task
+    private static final int LEAF_SIZE = 8;
+    private static final int PROGRESS_REFRESH_MS = 200;
+
+    private final MontoyaApi montoyaApi;
+    private final ForkJoinPool pool;
+    private final JPanel mainPanel;
+    private final JButton cancelButton;
+    private final JProgressBar progressBar;
+    private final JLabel statusLabel;
+    private final JTextArea reportArea;
+    private final Timer progressTimer;
+    // Only touched on the EDT
+    private Run run;
+
+    public SSEStatsTab(MontoyaApi montoyaApi, ForkJoinPool pool) {
+        this.montoyaApi = montoyaApi;
+        this.pool = pool;
+
+        Font burpFont = montoyaApi.userInterface().currentEditorFont();
+        mainPanel = new JPanel(new BorderLayout());
+
+        JButton historyButton = new JButton("Analyze Proxy History");
+        historyButton.addActionListener(e -> analyze("proxy history", () -> montoyaApi.proxy().history(),
+            ProxyHttpRequestResponse::response));
+        JButton siteMapButton = new JButton("Analyze Site Map");
+        siteMapButton.addActionListener(e -> analyze("site map", () -> montoyaApi.siteMap().requestResponses(),
+            HttpRequestResponse::response));
+        cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(e -> cancel());
+        progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        statusLabel = new JLabel("Select messages in any tool and choose \"Analyze SSE statistics\", " +
+            "or analyze a whole source.");
+
+        JPanel actionBar = new JPanel(new FlowLayout(FlowLayout.LEFT, 6, 2));
+        actionBar.setBorder(BorderFactory.createEmptyBorder(4, 0, 2, 0));
+        actionBar.add(historyButton);
+        actionBar.add(siteMapButton);
+        actionBar.add(cancelButton);
+        actionBar.add(progressBar);
+        actionBar.add(statusLabel);
+        mainPanel.add(actionBar, BorderLayout.NORTH);
+
+        reportArea = new JTextArea();
+        reportArea.setEditable(false);
+        reportArea.setFont(burpFont);
+        reportArea.setBackground(new Color(30, 30, 30));
+        reportArea.setForeground(new Color(200, 200, 200));
+        reportArea.setCaretColor(new Color(200, 200, 200));
+        mainPanel.add(new JScrollPane(reportArea), BorderLayout.CENTER);
+
+        progressTimer = new Timer(PROGRESS_REFRESH_MS, e -> refreshProgress());
+    }
+
+    public Component uiComponent() {
+        return mainPanel;
+    }
+
+    @Override
+    public List<Component> provideMenuItems(ContextMenuEvent event) {
+        List<HttpRequestResponse> selected = event.selectedRequestResponses();
+        if (selected.isEmpty()) {
+            return List.of();
+        }
+        JMenuItem item = new JMenuItem("Analyze SSE statistics");
+        item.addActionListener(e -> analyze(selected.size() + " selected messages", () -> selected,
+            HttpRequestResponse::response));
+        return List.of(item);
+    }
+
+    /** Cancels a running analysis; called when the extension is unloaded. */
+    public void dispose() {
+        progressTimer.stop();
+        if (run != null) {
+            run.cancelled.set(true);
+        }
+    }
+
+    private <T> void analyze(String source, Supplier<List<T>> items, Function<T, HttpResponse> response) {
+        if (run != null) {
+            run.cancelled.set(true);
+        }
+        Run current = new Run(source);
+        run = current;
+        cancelButton.setEnabled(true);
+        statusLabel.setText("Analyzing " + source + "\u2026");
+        progressBar.setIndeterminate(true);
+        progressTimer.start();
+        pool.execute(() -> {
+            SSEStatistics statistics;
+            try {
+                // Reading the history can take a while on large projects, so it happens here too
+                List<T> list = items.get();
+                current.total.set(list.size());
+                statistics = new StatisticsTask<>(list, 0, list.size(), response, current).invoke();
+            } catch (Exception e) {
+                montoyaApi.logging().logToError("Error computing SSE statistics: " + e.getMessage());
+                statistics = null;
+            }
+            SSEStatistics result = statistics;
+            SwingUtilities.invokeLater(() -> finish(current, result));
+        });
+    }
+
+    private void cancel() {
+        if (run != null) {
+            run.cancelled.set(true);
+            statusLabel.setText("Cancelling\u2026");
+        }
+    }
+
+    private void finish(Run finished, SSEStatistics statistics) {
+        if (finished != run) {
+            return; // Superseded by a newer analysis
+        }
+        run = null;
+        progressTimer.stop();
+        cancelButton.setEnabled(false);
+        progressBar.setIndeterminate(false);
+        int done = finished.done.get();
+        int total = finished.total.get();
+        progressBar.setMaximum(Math.max(1, total));
+        progressBar.setValue(done);
+        progressBar.setString(done + " / " + total);
+        if (statistics == null) {
+            statusLabel.setText("Analysis of " + finished.source + " failed; see the extension's error log.");
+            return;
+        }
+        long elapsed = System.currentTimeMillis() - finished.started;
+        statusLabel.setText((finished.cancelled.get() ? "Cancelled after " + done + " of " + total
+            : "Analyzed " + total) + " messages from " + finished.source + " in " + elapsed + " ms");
+        reportArea.setText(statistics.report());
+        reportArea.setCaretPosition(0);
+    }
+
+    private void refreshProgress() {
+        if (run == null || run.total.get() < 0) {
+            return;
+        }
+        progressBar.setIndeterminate(false);
+        progressBar.setMaximum(Math.max(1, run.total.get()));
+        progressBar.setValue(run.done.get());
+        progressBar.setString(run.done.get() + " / " + run.total.get());
+    }
+
+    // State of one analysis, shared by its tasks
+    private static class Run {
+        final String source;
+        final long started = System.currentTimeMillis();
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final AtomicInteger done = new AtomicInteger();
+        final AtomicInteger total = new AtomicInteger(-1);
+
+        Run(String source) {
+            this.source = source;
+        }
+    }
+
+    // Splits the items in halves down to leaves of LEAF_SIZE responses
+    private static class StatisticsTask<T> extends RecursiveTask<SSEStatistics> {
+        private final List<T> items;
+        private final int from;
+        private final int to;
+        private final Function<T, HttpResponse> response;
+        private final Run run;
+
+        StatisticsTask(List<T> items, int from, int to, Function<T, HttpResponse> response, Run run) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.response = response;
+            this.run = run;
+        }
+
+        @Override
+        protected SSEStatistics compute() {
+            if (to - from > LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                StatisticsTask<T> left = new StatisticsTask<>(items, from, middle, response, run);
+                left.fork();
+                SSEStatistics right = new StatisticsTask<>(items, middle, to, response, run).compute();
+                return left.join().merge(right);
+            }
+            SSEStatistics statistics = new SSEStatistics();
+            for (int i = from; i < to && !run.cancelled.get(); i++) {
+                HttpResponse message = response.apply(items.get(i));
+                // Same test as the SSE editor tab, so sniffed streams are counted too
+                if (message != null && SSECaptureHandler.looksLikeEventStream(message)) {
+                    statistics.add(message.body().getBytes());
+                } else {
+                    statistics.skip();
+                }
+                run.done.incrementAndGet();
+            }
+            return statistics;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import burp.api.montoya.persistence.Preferences;
+
+/**
+ * User-level settings of the extension, persisted in Burp's preferences.
+ */
+public class SSEViewerSettings {
+
+    private static final String PARSE_CACHE_BUDGET_MB = "sse.parseCacheBudgetMb";
+    private static final int DEFAULT_PARSE_CACHE_BUDGET_MB = 128;
+    private static final String DETAIL_PAGE_KB = "sse.detailPageKb";
+    private static final int DEFAULT_DETAIL_PAGE_KB = 64;
+    private static final String HIGHLIGHT_LIMIT_KB = "sse.highlightLimitKb";
+    private static final int DEFAULT_HIGHLIGHT_LIMIT_KB = 1024;
+    private static final String PROJECTION_PATHS = "sse.projectionPaths";
+    private static final String REASSEMBLY_TEXT_PATH = "sse.reassemblyTextPath";
+    private static final String CAPTURE_ENABLED = "sse.captureEnabled";
+    private static final String CAPTURE_BUDGET_MB = "sse.captureBudgetMb";
+    private static final int DEFAULT_CAPTURE_BUDGET_MB = 256;
+    private static final String CAPTURE_DISK_BUDGET_MB = "sse.captureDiskBudgetMb";
+    private static final int DEFAULT_CAPTURE_DISK_BUDGET_MB = 4096;
+    private static final String SLOW_STAGE_LOG_MS = "sse.slowStageLogMs";
+
+    private final Preferences preferences;
+
+    public SSEViewerSettings(Preferences preferences) {
+        this.preferences = preferences;
+    }
+
+    /** Heap budget of the shared parse cache in MB. */
+    public int parseCacheBudgetMb() {
+        return getInteger(PARSE_CACHE_BUDGET_MB, DEFAULT_PARSE_CACHE_BUDGET_MB);
+    }
+
+    public void setParseCacheBudgetMb(int budgetMb) {
+        preferences.setInteger(PARSE_CACHE_BUDGET_MB, budgetMb);
+    }
+
+    /** Amount of event data rendered up front and per scroll page, in KB. */
+    public int detailPageKb() {
+        return Math.max(1, getInteger(DETAIL_PAGE_KB, DEFAULT_DETAIL_PAGE_KB));
+    }
+
+    public void setDetailPageKb(int pageKb) {
+        preferences.setInteger(DETAIL_PAGE_KB, pageKb);
+    }
+
+    /** Events larger than this are shown as plain text without highlighting, in KB. */
+    public int highlightLimitKb() {
+        return getInteger(HIGHLIGHT_LIMIT_KB, DEFAULT_HIGHLIGHT_LIMIT_KB);
+    }
+
+    public void setHighlightLimitKb(int limitKb) {
+        preferences.setInteger(HIGHLIGHT_LIMIT_KB, limitKb);
+    }
+
+    /** JSON paths shown as extra table columns, in column order. */
+    public List<String> projectionPaths() {
+        List<String> paths = new ArrayList<>();
+        String value = preferences.getString(PROJECTION_PATHS);
+        if (value != null) {
+            for (String line : value.split("\n")) {
+                if (!line.isBlank()) {
+                    paths.add(line.trim());
+                }
+            }
+        }
+        return paths;
+    }
+
+    public void setProjectionPaths(List<String> paths) {
+        preferences.setString(PROJECTION_PATHS, String.join("\n", paths));
+    }
+
+    /** JSON path of the text fragment in each event for the Reassembled view, or null to detect it. */
+    public String reassemblyTextPath() {
+        String value = preferences.getString(REASSEMBLY_TEXT_PATH);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    public void setReassemblyTextPath(String path) {
+        preferences.setString(REASSEMBLY_TEXT_PATH, path == null ? "" : path.trim());
+    }
+
+    /** Whether event streams in live traffic are captured into the shared store. */
+    public boolean captureEnabled() {
+        Boolean value = preferences.getBoolean(CAPTURE_ENABLED);
+        return value != null && value;
+    }
+
+    public void setCaptureEnabled(boolean enabled) {
+        preferences.setBoolean(CAPTURE_ENABLED, enabled);
+    }
+
+    /** Heap budget of captured event streams in MB; older captures spill to disk beyond it. */
+    public int captureBudgetMb() {
+        return getInteger(CAPTURE_BUDGET_MB, DEFAULT_CAPTURE_BUDGET_MB);
+    }
+
+    public void setCaptureBudgetMb(int budgetMb) {
+        preferences.setInteger(CAPTURE_BUDGET_MB, budgetMb);
+    }
+
+    /** Disk budget of spilled captures in MB; 0 disables spilling. */
+    public int captureDiskBudgetMb() {
+        return getInteger(CAPTURE_DISK_BUDGET_MB, DEFAULT_CAPTURE_DISK_BUDGET_MB);
+    }
+
+    public void setCaptureDiskBudgetMb(int budgetMb) {
+        preferences.setInteger(CAPTURE_DISK_BUDGET_MB, budgetMb);
+    }
+
+    /** Processing stages slower than this are logged, in ms; 0 turns logging off. */
+    public int slowStageLogMs() {
+        return getInteger(SLOW_STAGE_LOG_MS, 0);
+    }
+
+    public void setSlowStageLogMs(int thresholdMs) {
+        preferences.setInteger(SLOW_STAGE_LOG_MS, thresholdMs);
+    }
+
+    private int getInteger(String key, int defaultValue) {
+        Integer value = preferences.getInteger(key);
+        return value != null && value >= 0 ? value : defaultValue;
+    }
+}